@@ -1,10 +0,0 @@
-package com.hao.ai;
-
-/**
- * Created by ZhangHao on 2017/7/25.
- * AI落子完成回调
- */
-
-public interface AICallBack {
-    void aiAtTheBell();
-}
@@ -1,6 +1,7 @@
 package com.hao.gamefivechess;
 
 import android.content.Context;
+import android.content.res.AssetManager;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 import android.view.Gravity;
@@ -10,14 +11,27 @@ import android.view.WindowManager;
 import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.PopupWindow;
+import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import com.hao.ai.AI;
 import com.hao.ai.AICallBack;
+import com.hao.ai.GameRecordReader;
+import com.hao.ai.GameRecordWriter;
+import com.hao.ai.OpeningBook;
 import com.hao.udv.FiveChessView;
 import com.hao.udv.GameCallBack;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 
 public class MainActivity extends AppCompatActivity implements GameCallBack, AICallBack, View.OnClickListener {
 
@@ -33,6 +47,24 @@ public class MainActivity extends AppCompatActivity implements GameCallBack, AIC
     private AI ai;
     //PopUpWindow选择玩家执子
     private PopupWindow chooseChess;
+    //选择棋盘大小
+    private RadioGroup boardSize;
+    //ai落子的最短显示时间（毫秒）
+    private static final long AI_MIN_DELAY = 500;
+    //开局库文件名（assets中以及应用私有目录中）
+    private static final String OPENING_BOOK = "opening_book.bin";
+    //对局记录文件名（应用私有目录中）
+    private static final String GAME_RECORDS = "games.bin";
+    //对局记录，打开失败时为null，只在RECORD_EXECUTOR中访问
+    private GameRecordWriter gameWriter;
+    //对局记录的打开、写入和关闭在这个线程中进行，不阻塞UI线程；
+    //所有Activity实例共用，重建的Activity打开文件时，上一个实例的写入已经完成
+    private static final ExecutorService RECORD_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "game-records");
+        }
+    });
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -42,6 +74,22 @@ public class MainActivity extends AppCompatActivity implements GameCallBack, AIC
         initViews();
         //初始化ai
         ai = new AI(fiveChessView.getChessArray(), this);
+        //ai算得太快时至少等待一会儿再落子
+        ai.setMinDelay(AI_MIN_DELAY);
+        //载入开局库
+        ai.setOpeningBook(loadOpeningBook());
+        //打开对局记录
+        final File records = new File(getFilesDir(), GAME_RECORDS);
+        RECORD_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    gameWriter = new GameRecordWriter(records);
+                } catch (IOException e) {
+                    gameWriter = null;
+                }
+            }
+        });
         //view加载完成
         fiveChessView.getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
             @Override
@@ -53,6 +101,112 @@ public class MainActivity extends AppCompatActivity implements GameCallBack, AIC
         });
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        //写出缓冲的对局记录，进程可能在后台被结束
+        RECORD_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (gameWriter != null) {
+                    try {
+                        gameWriter.flush();
+                    } catch (IOException e) {
+                        //记录失败不影响游戏
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        //释放ai线程
+        ai.release();
+        //保存没有下完的一局并关闭对局记录
+        saveGame();
+        RECORD_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (gameWriter != null) {
+                    try {
+                        gameWriter.close();
+                    } catch (IOException e) {
+                        //记录失败不影响游戏
+                    }
+                    gameWriter = null;
+                }
+            }
+        });
+    }
+
+    //把当前一局追加到对局记录（无限棋盘不记录）：在UI线程复制落子记录，在RECORD_EXECUTOR中写入
+    private void saveGame() {
+        final int count = fiveChessView.getHistoryCount();
+        if (count == 0 || fiveChessView.isInfinite()) {
+            return;
+        }
+        final int size = fiveChessView.getGridNumber();
+        final int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = fiveChessView.getHistoryX(i) * size + fiveChessView.getHistoryY(i);
+        }
+        final int firstChess = fiveChessView.getHistoryChess(0);
+        final int result = fiveChessView.isGameOver() ? fiveChessView.getWinner() : GameRecordReader.RESULT_UNFINISHED;
+        RECORD_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (gameWriter == null) {
+                    return;
+                }
+                try {
+                    gameWriter.write(size, firstChess, moves, count, result);
+                } catch (IOException e) {
+                    //记录失败不影响游戏
+                }
+            }
+        });
+    }
+
+    /**
+     * 载入开局库：assets中的文件是压缩的，不能直接内存映射，第一次运行时复制到应用私有目录
+     *
+     * @return 开局库，没有开局库文件时返回null
+     */
+    private OpeningBook loadOpeningBook() {
+        File file = new File(getFilesDir(), OPENING_BOOK);
+        try {
+            if (!file.exists()) {
+                copyAsset(getAssets(), OPENING_BOOK, file);
+            }
+            return OpeningBook.open(file);
+        } catch (IOException e) {
+            //没有开局库时AI照常计算，复制不完整的文件删除后下次重新复制
+            file.delete();
+            return null;
+        }
+    }
+
+    //复制assets中的文件
+    private static void copyAsset(AssetManager assets, String name, File file) throws IOException {
+        InputStream in = assets.open(name);
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                byte[] buffer = new byte[8192];
+                int length;
+                while ((length = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, length);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
     private void initViews() {
         //五子棋UI
         fiveChessView = (FiveChessView) findViewById(R.id.five_chess_view);
@@ -68,6 +222,9 @@ public class MainActivity extends AppCompatActivity implements GameCallBack, AIC
         aiTimeIv = (ImageView) findViewById(R.id.ai_think_iv);
         //重开游戏设置点击事件
         findViewById(R.id.restart_game).setOnClickListener(this);
+        //悔棋、还原
+        findViewById(R.id.undo_move).setOnClickListener(this);
+        findViewById(R.id.redo_move).setOnClickListener(this);
     }
 
 
@@ -79,6 +236,7 @@ public class MainActivity extends AppCompatActivity implements GameCallBack, AIC
             ImageButton black = (ImageButton) view.findViewById(R.id.choose_black);
             white.setOnClickListener(this);
             black.setOnClickListener(this);
+            boardSize = (RadioGroup) view.findViewById(R.id.board_size);
             chooseChess = new PopupWindow(view, width, height);
             chooseChess.setOutsideTouchable(false);
             chooseChess.showAtLocation(fiveChessView, Gravity.CENTER, 0, 0);
@@ -122,14 +280,18 @@ public class MainActivity extends AppCompatActivity implements GameCallBack, AIC
     }
 
     @Override
-    public void aiAtTheBell() {
+    public void aiAtTheBell(final int x, final int y, final int generation) {
         runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                //更新UI
-                fiveChessView.postInvalidate();
+                //回调发出之后才重新开始或者悔棋时，丢弃过时的落子
+                if (!ai.isCurrent(generation)) {
+                    return;
+                }
+                //落子，只重绘ai落子的一格
+                fiveChessView.placeAiChess(x, y);
                 //检查游戏是否结束
-                fiveChessView.checkAiGameOver();
+                fiveChessView.checkAiGameOver(x, y);
                 //设置为玩家回合
                 fiveChessView.setUserBout(true);
                 //更改当前落子
@@ -145,20 +307,92 @@ public class MainActivity extends AppCompatActivity implements GameCallBack, AIC
             case R.id.restart_game:
                 //显示PopupWindow
                 chooseChess.showAtLocation(fiveChessView, Gravity.CENTER, 0, 0);
-                //重新开始游戏
+                //取消ai正在进行的计算，记录这一局，再重新开始游戏
+                ai.cancel();
+                saveGame();
                 fiveChessView.resetGame();
                 break;
+            case R.id.undo_move:
+                takeBack();
+                break;
+            case R.id.redo_move:
+                redoMove();
+                break;
             case R.id.choose_black:
+                changeBoardSize();
                 changeUI(false);
                 chooseChess.dismiss();
                 break;
             case R.id.choose_white:
+                changeBoardSize();
                 changeUI(true);
                 chooseChess.dismiss();
                 break;
         }
     }
 
+    //悔棋：取消ai的计算，撤销到玩家上一步落子之前，轮到玩家落子
+    private void takeBack() {
+        ai.cancel();
+        int chess;
+        do {
+            chess = fiveChessView.undo();
+        } while (chess != FiveChessView.NO_CHESS && chess != fiveChessView.getUserChess());
+        fiveChessView.setUserBout(true);
+        updateWinInfo();
+        aiTimeIv.setVisibility(View.GONE);
+        userTimeIv.setVisibility(View.VISIBLE);
+    }
+
+    //还原：重新落下悔掉的玩家一步和ai的应对，没有记录ai的应对时由ai重新计算
+    private void redoMove() {
+        if (!fiveChessView.isUserBout()) {
+            return;
+        }
+        int chess = fiveChessView.redo();
+        //悔棋到开局时，第一步可能是ai的
+        if (chess != FiveChessView.NO_CHESS && chess != fiveChessView.getUserChess()) {
+            chess = fiveChessView.redo();
+        }
+        if (chess == FiveChessView.NO_CHESS || fiveChessView.isGameOver()) {
+            return;
+        }
+        if (fiveChessView.redo() == FiveChessView.NO_CHESS) {
+            fiveChessView.setUserBout(false);
+            ai.aiBout();
+            aiTimeIv.setVisibility(View.VISIBLE);
+            userTimeIv.setVisibility(View.GONE);
+        }
+    }
+
+    //按选择的棋盘大小更换棋盘，大小不变时不做任何事
+    private void changeBoardSize() {
+        int size;
+        switch (boardSize.getCheckedRadioButtonId()) {
+            case R.id.board_size_19:
+                size = 19;
+                break;
+            case R.id.board_size_25:
+                size = 25;
+                break;
+            case R.id.board_size_infinite:
+                size = FiveChessView.INFINITE;
+                break;
+            default:
+                size = FiveChessView.DEFAULT_GRID_NUMBER;
+                break;
+        }
+        if (size != fiveChessView.getGridNumber()) {
+            fiveChessView.setGridNumber(size);
+            if (fiveChessView.isInfinite()) {
+                ai.setSparseBoard(fiveChessView.getSparseBoard());
+            } else {
+                ai.setSparseBoard(null);
+                ai.setChessArray(fiveChessView.getChessArray());
+            }
+        }
+    }
+
     //根据玩家选择执子，更新UI
     private void changeUI(boolean isUserWhite) {
         if (isUserWhite) {
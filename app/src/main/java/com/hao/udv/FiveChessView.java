@@ -6,14 +6,23 @@ import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.PorterDuff;
 import android.graphics.Rect;
+import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.widget.Toast;
 
+import com.hao.ai.Board;
+import com.hao.ai.Chess;
+import com.hao.ai.SparseBoard;
 import com.hao.gamefivechess.R;
 
+import java.util.Arrays;
+
 /**
  * Created by ZhangHao on 2017/6/27.
  * 五子棋 View
@@ -29,16 +38,25 @@ public class FiveChessView extends View implements View.OnTouchListener {
     private boolean isWhite = true;
     //游戏是否结束
     private boolean isGameOver = false;
+    //胜者（游戏结束时有效，平局为NO_CHESS）
+    private int winner = NO_CHESS;
+    //棋盘上的棋子数，用于判断平局
+    private int stoneCount = 0;
 
-    //bitmap
+    //bitmap，按格子大小缩放好的棋子图片，尺寸变化时重新生成
     private Bitmap whiteChess;
     private Bitmap blackChess;
     //Rect
     private Rect rect;
+    //每格的边界坐标，第i格为[cellEdges[i], cellEdges[i + 1])
+    private int[] cellEdges;
+    //棋盘缓存：棋盘线和已落的棋子画在离屏bitmap上，落子时只更新一格
+    private Bitmap boardCache;
+    private Canvas cacheCanvas;
     //棋盘宽高
     private float len;
-    //棋盘格数
-    private int GRID_NUMBER = 15;
+    //棋盘格数（15、19、25，可以在两局之间修改）
+    private int gridNumber = DEFAULT_GRID_NUMBER;
     //每格之间的距离
     private float preWidth;
     //边距
@@ -53,21 +71,47 @@ public class FiveChessView extends View implements View.OnTouchListener {
     private int userChess = WHITE_CHESS;
     //玩家/AI胜利次数
     private int userScore = 0, aiScore = 0;
+    //落子记录（悔棋、还原）：每步的位置和颜色，historyCount之后、redoCount之前是悔棋后可以还原的步
+    private int[] historyX = new int[64];
+    private int[] historyY = new int[64];
+    private int[] historyChess = new int[64];
+    private int historyCount;
+    private int redoCount;
+    //无限棋盘，无限棋盘模式下不为空，此时不使用chessArray和棋盘缓存
+    private SparseBoard sparseBoard;
+    //无限棋盘模式：view左上角对应的棋盘坐标（以格为单位），每格的像素数
+    private float originX, originY;
+    private float cellSize;
+    //棋子绘制区域
+    private RectF stoneRect;
+    //双指缩放
+    private ScaleGestureDetector scaleDetector;
+    //单指拖动：上一次触摸的位置，是否已经移动超过touchSlop（超过后松开不落子）
+    private float lastTouchX, lastTouchY;
+    private boolean isDragging;
+    private int touchSlop;
     /**
      * 一些常量
      */
     //白棋
-    public static final int WHITE_CHESS = 1;
+    public static final int WHITE_CHESS = Chess.WHITE;
     //黑棋
-    public static final int BLACK_CHESS = 2;
+    public static final int BLACK_CHESS = Chess.BLACK;
     //无棋
-    public static final int NO_CHESS = 0;
+    public static final int NO_CHESS = Chess.NONE;
     //白棋赢
     public static final int WHITE_WIN = 101;
     //黑棋赢
     public static final int BLACK_WIN = 102;
     //平局
     public static final int NO_WIN = 103;
+    //默认棋盘格数
+    public static final int DEFAULT_GRID_NUMBER = 15;
+    //无限棋盘的格数
+    public static final int INFINITE = 0;
+    //无限棋盘一屏最少、最多显示的格数
+    private static final int MIN_VISIBLE_CELLS = 8;
+    private static final int MAX_VISIBLE_CELLS = 40;
 
     public FiveChessView(Context context) {
         this(context, null);
@@ -85,20 +129,21 @@ public class FiveChessView extends View implements View.OnTouchListener {
         paint.setAntiAlias(true);
         paint.setColor(Color.BLACK);
         //初始化chessArray
-        chessArray = new int[GRID_NUMBER][GRID_NUMBER];
-        //初始化棋子图片bitmap
-        whiteChess = BitmapFactory.decodeResource(context.getResources(), R.drawable.white_chess);
-        blackChess = BitmapFactory.decodeResource(context.getResources(), R.drawable.black_chess);
+        chessArray = new int[gridNumber][gridNumber];
         //初始化胜利局数
         whiteChessCount = 0;
         blackChessCount = 0;
         //初始化Rect
         rect = new Rect();
+        stoneRect = new RectF();
+        //无限棋盘的缩放和拖动
+        scaleDetector = new ScaleGestureDetector(context, new ScaleListener());
+        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
         //设置点击监听
         setOnTouchListener(this);
         //重置棋盘状态
-        for (int i = 0; i < GRID_NUMBER; i++) {
-            for (int j = 0; j < GRID_NUMBER; j++) {
+        for (int i = 0; i < gridNumber; i++) {
+            for (int j = 0; j < gridNumber; j++) {
                 chessArray[i][j] = 0;
             }
         }
@@ -119,90 +164,290 @@ public class FiveChessView extends View implements View.OnTouchListener {
         setMeasuredDimension(len, len);
     }
 
+    /**
+     * 尺寸变化时重新计算格子大小并重建棋盘缓存
+     */
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-        //棋盘为一个GRID_NUMBER*GRID_NUMBER的正方形，所有棋盘宽高必须一样
-        len = getWidth() > getHeight() ? getHeight() : getWidth();
-        preWidth = len / GRID_NUMBER;
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        layoutBoard(w, h);
+    }
+
+    //按view大小和棋盘格数计算格子大小、缩放棋子图片并重建棋盘缓存
+    private void layoutBoard(int w, int h) {
+        if (sparseBoard != null) {
+            layoutInfinite(w, h);
+            return;
+        }
+        //棋盘为一个gridNumber*gridNumber的正方形，所有棋盘宽高必须一样
+        len = w > h ? h : w;
+        preWidth = len / gridNumber;
         //边距
         offset = preWidth / 2;
+        //每格的边界
+        cellEdges = new int[gridNumber + 1];
+        for (int i = 0; i <= gridNumber; i++) {
+            cellEdges[i] = (int) (i * preWidth);
+        }
+        //释放旧的缓存和棋子图片
+        if (boardCache != null) {
+            boardCache.recycle();
+            boardCache = null;
+            cacheCanvas = null;
+        }
+        recycleChess();
+        //格子不足一个像素时不绘制
+        int chessSize = (int) preWidth;
+        if (chessSize > 0) {
+            //棋子图片缩放到格子大小
+            whiteChess = loadChess(R.drawable.white_chess, chessSize);
+            blackChess = loadChess(R.drawable.black_chess, chessSize);
+            boardCache = Bitmap.createBitmap((int) len, (int) len, Bitmap.Config.ARGB_8888);
+            cacheCanvas = new Canvas(boardCache);
+            rebuildCache();
+        }
+    }
+
+    //无限棋盘：不使用棋盘缓存，第一次布局时以原点为中心
+    private void layoutInfinite(int w, int h) {
+        len = w > h ? h : w;
+        if (boardCache != null) {
+            boardCache.recycle();
+            boardCache = null;
+            cacheCanvas = null;
+        }
+        if (cellSize == 0 && len > 0) {
+            cellSize = len / DEFAULT_GRID_NUMBER;
+            centerBoard();
+        }
+        scaleChess();
+    }
+
+    //无限棋盘：原点(0, 0)一格移到view中间
+    private void centerBoard() {
+        if (cellSize > 0) {
+            originX = 0.5f - getWidth() / cellSize / 2;
+            originY = 0.5f - getHeight() / cellSize / 2;
+        }
+    }
+
+    //无限棋盘：按当前缩放重新生成棋子图片
+    private void scaleChess() {
+        recycleChess();
+        int chessSize = (int) cellSize;
+        if (chessSize > 0) {
+            whiteChess = loadChess(R.drawable.white_chess, chessSize);
+            blackChess = loadChess(R.drawable.black_chess, chessSize);
+        }
+    }
+
+    /**
+     * 解码并缩放棋子图片：先按inSampleSize缩小解码，再缩放到正好size大小
+     *
+     * @param id   图片资源
+     * @param size 边长
+     * @return 缩放好的图片
+     */
+    private Bitmap loadChess(int id, int size) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        //不按屏幕密度放大，只读取尺寸
+        options.inScaled = false;
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(getResources(), id, options);
+        //解码后的尺寸不小于size的最大的2的幂次缩小倍数
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= size && options.outHeight / (sampleSize * 2) >= size) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap decoded = BitmapFactory.decodeResource(getResources(), id, options);
+        Bitmap scaled = Bitmap.createScaledBitmap(decoded, size, size, true);
+        if (scaled != decoded) {
+            decoded.recycle();
+        }
+        return scaled;
+    }
+
+    //释放棋子图片
+    private void recycleChess() {
+        if (whiteChess != null) {
+            whiteChess.recycle();
+            whiteChess = null;
+        }
+        if (blackChess != null) {
+            blackChess.recycle();
+            blackChess = null;
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (sparseBoard != null) {
+            drawInfinite(canvas);
+        } else if (boardCache != null) {
+            canvas.drawBitmap(boardCache, 0, 0, null);
+        }
+    }
+
+    //无限棋盘：只画可见范围内的棋盘线，遍历所有棋子画出可见的部分
+    private void drawInfinite(Canvas canvas) {
+        if (cellSize <= 0 || whiteChess == null) {
+            return;
+        }
+        int width = getWidth();
+        int height = getHeight();
+        //竖线（x方向）
+        for (int i = (int) Math.floor(originX); i <= originX + width / cellSize; i++) {
+            float lineX = (i - originX + 0.5f) * cellSize;
+            canvas.drawLine(lineX, 0, lineX, height, paint);
+        }
+        //横线（y方向）
+        for (int j = (int) Math.floor(originY); j <= originY + height / cellSize; j++) {
+            float lineY = (j - originY + 0.5f) * cellSize;
+            canvas.drawLine(0, lineY, width, lineY, paint);
+        }
+        //棋子
+        for (int i = 0; i < sparseBoard.getCapacity(); i++) {
+            int chess = sparseBoard.getChess(i);
+            if (chess == NO_CHESS) {
+                continue;
+            }
+            float left = (sparseBoard.getX(i) - originX) * cellSize;
+            float top = (sparseBoard.getY(i) - originY) * cellSize;
+            if (left + cellSize < 0 || top + cellSize < 0 || left > width || top > height) {
+                continue;
+            }
+            //缩放过程中棋子图片与格子大小不同，按格子大小绘制
+            stoneRect.set(left, top, left + cellSize, top + cellSize);
+            canvas.drawBitmap(chess == WHITE_CHESS ? whiteChess : blackChess, null, stoneRect, paint);
+        }
+    }
+
+    //重画整个棋盘缓存，只在尺寸变化和重置时调用
+    private void rebuildCache() {
+        if (cacheCanvas == null) {
+            return;
+        }
+        cacheCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
         //棋盘线条
-        for (int i = 0; i < GRID_NUMBER; i++) {
+        for (int i = 0; i < gridNumber; i++) {
             float start = i * preWidth + offset;
             //横线
-            canvas.drawLine(offset, start, len - offset, start, paint);
+            cacheCanvas.drawLine(offset, start, len - offset, start, paint);
             //竖线
-            canvas.drawLine(start, offset, start, len - offset, paint);
+            cacheCanvas.drawLine(start, offset, start, len - offset, paint);
         }
         //绘制棋子
-        for (int i = 0; i < GRID_NUMBER; i++) {
-            for (int j = 0; j < GRID_NUMBER; j++) {
-                //rect中点坐标
-                float rectX = offset + i * preWidth;
-                float rectY = offset + j * preWidth;
-                //设置rect位置
-                rect.set((int) (rectX - offset), (int) (rectY - offset),
-                        (int) (rectX + offset), (int) (rectY + offset));
-                //遍历chessArray
-                switch (chessArray[i][j]) {
-                    case WHITE_CHESS:
-                        //绘制白棋
-                        canvas.drawBitmap(whiteChess, null, rect, paint);
-                        break;
-                    case BLACK_CHESS:
-                        //绘制黑棋
-                        canvas.drawBitmap(blackChess, null, rect, paint);
-                        break;
+        for (int i = 0; i < gridNumber; i++) {
+            for (int j = 0; j < gridNumber; j++) {
+                if (chessArray[i][j] != NO_CHESS) {
+                    drawCell(i, j);
                 }
             }
         }
     }
 
+    //在缓存上重画(x, y)一格：清空后补上经过这一格的棋盘线，再画棋子
+    private void drawCell(int x, int y) {
+        setCellRect(x, y);
+        cacheCanvas.save();
+        cacheCanvas.clipRect(rect);
+        cacheCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        float centerX = offset + x * preWidth;
+        float centerY = offset + y * preWidth;
+        cacheCanvas.drawLine(offset, centerY, len - offset, centerY, paint);
+        cacheCanvas.drawLine(centerX, offset, centerX, len - offset, paint);
+        switch (chessArray[x][y]) {
+            case WHITE_CHESS:
+                //绘制白棋
+                cacheCanvas.drawBitmap(whiteChess, rect.left, rect.top, paint);
+                break;
+            case BLACK_CHESS:
+                //绘制黑棋
+                cacheCanvas.drawBitmap(blackChess, rect.left, rect.top, paint);
+                break;
+        }
+        cacheCanvas.restore();
+    }
+
+    //rect设置为(x, y)一格所在的区域
+    private void setCellRect(int x, int y) {
+        rect.set(cellEdges[x], cellEdges[y], cellEdges[x + 1], cellEdges[y + 1]);
+    }
+
     /**
-     * 判断是否结束
+     * chessArray中(x, y)的棋子变化后调用：更新缓存中的这一格，只重绘这一格的区域
+     *
+     * @param x 位置
+     * @param y 位置
      */
-    private void checkGameOver() {
-        //获取落子的颜色(如果当前是白棋，则落子是黑棋)
-        int chess = isWhite ? BLACK_CHESS : WHITE_CHESS;
-        //棋盘是否填满
-        boolean isFull = true;
-        //遍历chessArray
-        for (int i = 0; i < GRID_NUMBER; i++) {
-            for (int j = 0; j < GRID_NUMBER; j++) {
-                //判断棋盘是否填满
-                if (chessArray[i][j] != BLACK_CHESS && chessArray[i][j] != WHITE_CHESS) {
-                    isFull = false;
+    public void updateChess(int x, int y) {
+        if (sparseBoard != null) {
+            postInvalidate();
+            return;
+        }
+        if (cacheCanvas == null) {
+            return;
+        }
+        drawCell(x, y);
+        postInvalidate(rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    /**
+     * 判断是否结束，只需要检查刚落下的棋子所在的四条线
+     *
+     * @param x 落子位置
+     * @param y 落子位置
+     */
+    private void checkGameOver(int x, int y) {
+        //记录这一步，新的落子之后不能再还原悔掉的步
+        if (historyCount == historyX.length) {
+            historyX = Arrays.copyOf(historyX, historyCount * 2);
+            historyY = Arrays.copyOf(historyY, historyCount * 2);
+            historyChess = Arrays.copyOf(historyChess, historyCount * 2);
+        }
+        historyX[historyCount] = x;
+        historyY[historyCount] = y;
+        historyChess[historyCount] = getChess(x, y);
+        historyCount++;
+        redoCount = historyCount;
+        judgeGameOver(x, y);
+    }
+
+    //判断(x, y)落子之后游戏是否结束
+    private void judgeGameOver(int x, int y) {
+        //落子的颜色
+        int chess = getChess(x, y);
+        //棋子数加一
+        stoneCount++;
+        //判断五子相连
+        if (isFiveSame(x, y)) {
+            //五子相连游戏结束
+            isGameOver = true;
+            winner = chess;
+            if (callBack != null) {
+                //判断黑白棋胜利
+                if (chess == WHITE_CHESS) {
+                    whiteChessCount++;
+                } else {
+                    blackChessCount++;
                 }
-                //只需要判断落子是否五连即可
-                if (chessArray[i][j] == chess) {
-                    //判断五子相连
-                    if (isFiveSame(i, j)) {
-                        //五子相连游戏结束
-                        isGameOver = true;
-                        if (callBack != null) {
-                            //判断黑白棋胜利
-                            if (chess == WHITE_CHESS) {
-                                whiteChessCount++;
-                            } else {
-                                blackChessCount++;
-                            }
-                            //判断玩家/AI 胜利
-                            if (userChess == chess) {
-                                userScore++;
-                            } else {
-                                aiScore++;
-                            }
-                            callBack.GameOver(chess == WHITE_CHESS ? WHITE_WIN : BLACK_WIN);
-                        }
-                        return;
-                    }
+                //判断玩家/AI 胜利
+                if (userChess == chess) {
+                    userScore++;
+                } else {
+                    aiScore++;
                 }
+                callBack.GameOver(chess == WHITE_CHESS ? WHITE_WIN : BLACK_WIN);
             }
+            return;
         }
-        //如果棋盘填满，平局结束
-        if (isFull) {
+        //如果棋盘填满，平局结束（无限棋盘没有平局）
+        if (sparseBoard == null && stoneCount == gridNumber * gridNumber) {
             isGameOver = true;
+            winner = NO_CHESS;
             if (callBack != null) {
                 callBack.GameOver(NO_WIN);
             }
@@ -214,61 +459,188 @@ public class FiveChessView extends View implements View.OnTouchListener {
      */
     public void resetGame() {
         isGameOver = false;
+        stoneCount = 0;
+        historyCount = 0;
+        redoCount = 0;
+        if (sparseBoard != null) {
+            sparseBoard.clear();
+            centerBoard();
+            postInvalidate();
+            return;
+        }
         //重置棋盘状态
-        for (int i = 0; i < GRID_NUMBER; i++) {
-            for (int j = 0; j < GRID_NUMBER; j++) {
+        for (int i = 0; i < gridNumber; i++) {
+            for (int j = 0; j < gridNumber; j++) {
                 chessArray[i][j] = 0;
             }
         }
-        //更新UI
+        //重建缓存并更新UI
+        rebuildCache();
         postInvalidate();
     }
 
     /**
-     * 判断是否存在五子相连
+     * 修改棋盘格数，棋盘清空，之后需要把新的棋盘数组（或者无限棋盘）交给AI
      *
-     * @return
+     * @param gridNumber 格数（15、19、25），INFINITE为无限棋盘
      */
-    private boolean isFiveSame(int x, int y) {
-        //判断横向
-        if (x + 4 < GRID_NUMBER) {
-            if (chessArray[x][y] == chessArray[x + 1][y] && chessArray[x][y] == chessArray[x + 2][y]
-                    && chessArray[x][y] == chessArray[x + 3][y] && chessArray[x][y] == chessArray[x + 4][y]) {
-                return true;
-            }
+    public void setGridNumber(int gridNumber) {
+        if (gridNumber != INFINITE && gridNumber != 15 && gridNumber != 19 && gridNumber != 25) {
+            throw new IllegalArgumentException("unsupported board size: " + gridNumber);
         }
-        //判断纵向
-        if (y + 4 < GRID_NUMBER) {
-            if (chessArray[x][y] == chessArray[x][y + 1] && chessArray[x][y] == chessArray[x][y + 2]
-                    && chessArray[x][y] == chessArray[x][y + 3] && chessArray[x][y] == chessArray[x][y + 4]) {
-                return true;
-            }
+        if (gridNumber == this.gridNumber) {
+            resetGame();
+            return;
         }
-        //判断斜向(左上到右下)
-        if (y + 4 < GRID_NUMBER && x + 4 < GRID_NUMBER) {
-            if (chessArray[x][y] == chessArray[x + 1][y + 1] && chessArray[x][y] == chessArray[x + 2][y + 2]
-                    && chessArray[x][y] == chessArray[x + 3][y + 3] && chessArray[x][y] == chessArray[x + 4][y + 4]) {
-                return true;
-            }
+        this.gridNumber = gridNumber;
+        if (gridNumber == INFINITE) {
+            sparseBoard = new SparseBoard();
+            cellSize = 0;
+        } else {
+            sparseBoard = null;
+            chessArray = new int[gridNumber][gridNumber];
         }
-        //判断斜向(左下到右上)
-        if (y - 4 > 0 && x + 4 < GRID_NUMBER) {
-            if (chessArray[x][y] == chessArray[x + 1][y - 1] && chessArray[x][y] == chessArray[x + 2][y - 2]
-                    && chessArray[x][y] == chessArray[x + 3][y - 3] && chessArray[x][y] == chessArray[x + 4][y - 4]) {
-                return true;
+        isGameOver = false;
+        stoneCount = 0;
+        historyCount = 0;
+        redoCount = 0;
+        //格子大小变了，重新计算并重建缓存
+        layoutBoard(getWidth(), getHeight());
+        postInvalidate();
+    }
+
+    public int getGridNumber() {
+        return gridNumber;
+    }
+
+    public boolean isInfinite() {
+        return sparseBoard != null;
+    }
+
+    public SparseBoard getSparseBoard() {
+        return sparseBoard;
+    }
+
+    /**
+     * AI的落子：AI不修改棋盘，由界面线程在这里落子并重绘
+     *
+     * @param x 位置
+     * @param y 位置
+     */
+    public void placeAiChess(int x, int y) {
+        setChess(x, y, Board.opposite(userChess));
+    }
+
+    /**
+     * 悔棋：撤销最后一步，之后可以用redo还原。
+     * 调用前需要先取消AI的计算，轮到谁落子由调用方决定
+     *
+     * @return 撤销的棋子颜色，没有可以撤销的步时返回NO_CHESS
+     */
+    public int undo() {
+        if (historyCount == 0) {
+            return NO_CHESS;
+        }
+        historyCount--;
+        int x = historyX[historyCount];
+        int y = historyY[historyCount];
+        int chess = historyChess[historyCount];
+        //撤销结束对局的一步时，恢复胜利局数
+        if (isGameOver) {
+            isGameOver = false;
+            if (callBack != null && isFiveSame(x, y)) {
+                if (chess == WHITE_CHESS) {
+                    whiteChessCount--;
+                } else {
+                    blackChessCount--;
+                }
+                if (userChess == chess) {
+                    userScore--;
+                } else {
+                    aiScore--;
+                }
             }
         }
-        return false;
+        setChess(x, y, NO_CHESS);
+        stoneCount--;
+        return chess;
     }
 
-    //电脑判断游戏结束
-    public void checkAiGameOver() {
+    /**
+     * 还原：重新落下最后一次悔掉的步
+     *
+     * @return 还原的棋子颜色，没有可以还原的步时返回NO_CHESS
+     */
+    public int redo() {
+        if (historyCount == redoCount || isGameOver) {
+            return NO_CHESS;
+        }
+        int x = historyX[historyCount];
+        int y = historyY[historyCount];
+        int chess = historyChess[historyCount];
+        historyCount++;
+        setChess(x, y, chess);
+        judgeGameOver(x, y);
+        return chess;
+    }
+
+    //修改(x, y)的棋子并重绘
+    private void setChess(int x, int y, int chess) {
+        if (sparseBoard == null) {
+            chessArray[x][y] = chess;
+        } else if (chess == NO_CHESS) {
+            sparseBoard.remove(x, y);
+        } else {
+            sparseBoard.place(x, y, chess);
+        }
+        updateChess(x, y);
+    }
+
+    //(x, y)的棋子
+    private int getChess(int x, int y) {
+        return sparseBoard != null ? sparseBoard.get(x, y) : chessArray[x][y];
+    }
+
+    /**
+     * 判断经过(x, y)的四条线上是否存在五子相连
+     *
+     * @return
+     */
+    private boolean isFiveSame(int x, int y) {
+        if (sparseBoard != null) {
+            return sparseBoard.isFive(x, y, sparseBoard.get(x, y));
+        }
+        //判断横向、纵向、斜向(左上到右下)、斜向(左下到右上)
+        return Board.isFive(chessArray, x, y);
+    }
+
+    //电脑判断游戏结束，(x, y)为电脑的落子
+    public void checkAiGameOver(int x, int y) {
         isWhite = userChess == WHITE_CHESS;
-        checkGameOver();
+        checkGameOver(x, y);
+    }
+
+    //玩家的棋子已经落在(x, y)，更新棋盘并交给电脑
+    private void placeUserChess(int x, int y) {
+        //修改当前落子颜色
+        isWhite = userChess == WHITE_CHESS;
+        //修改当前为电脑执子
+        isUserBout = false;
+        //更新棋盘
+        updateChess(x, y);
+        //判断是否结束
+        checkGameOver(x, y);
+        //回调当前执子（已经结束时不再交给电脑）
+        if (callBack != null && !isGameOver) {
+            callBack.ChangeGamer(isWhite);
+        }
     }
 
     @Override
     public boolean onTouch(View v, MotionEvent event) {
+        if (sparseBoard != null) {
+            return onInfiniteTouch(event);
+        }
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
                 if (!isGameOver && isUserBout) {
@@ -286,18 +658,7 @@ public class FiveChessView extends View implements View.OnTouchListener {
                                 chessArray[x][y] != BLACK_CHESS) {
                             //给数组赋值
                             chessArray[x][y] = userChess;
-                            //修改当前落子颜色
-                            isWhite = userChess == WHITE_CHESS;
-                            //修改当前为电脑执子
-                            isUserBout = false;
-                            //更新棋盘
-                            postInvalidate();
-                            //判断是否结束
-                            checkGameOver();
-                            //回调当前执子
-                            if (callBack != null) {
-                                callBack.ChangeGamer(isWhite);
-                            }
+                            placeUserChess(x, y);
                         }
                     }
                 } else if (isGameOver) {
@@ -309,6 +670,86 @@ public class FiveChessView extends View implements View.OnTouchListener {
         return false;
     }
 
+    /**
+     * 无限棋盘的触摸：单指拖动平移，双指缩放，没有拖动过的单击落子
+     */
+    private boolean onInfiniteTouch(MotionEvent event) {
+        scaleDetector.onTouchEvent(event);
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                lastTouchX = event.getX();
+                lastTouchY = event.getY();
+                isDragging = false;
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                //多指操作之后松开不再落子
+                isDragging = true;
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                //抬起的手指之外的一个继续拖动
+                int index = event.getActionIndex() == 0 ? 1 : 0;
+                lastTouchX = event.getX(index);
+                lastTouchY = event.getY(index);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                float dx = event.getX() - lastTouchX;
+                float dy = event.getY() - lastTouchY;
+                if (!isDragging && dx * dx + dy * dy > touchSlop * touchSlop) {
+                    isDragging = true;
+                }
+                if (isDragging) {
+                    if (!scaleDetector.isInProgress()) {
+                        originX -= dx / cellSize;
+                        originY -= dy / cellSize;
+                        invalidate();
+                    }
+                    lastTouchX = event.getX();
+                    lastTouchY = event.getY();
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                if (isDragging) {
+                    break;
+                }
+                if (isGameOver) {
+                    Toast.makeText(getContext(), "游戏已经结束，请重新开始！",
+                            Toast.LENGTH_SHORT).show();
+                } else if (isUserBout) {
+                    int x = (int) Math.floor(originX + event.getX() / cellSize);
+                    int y = (int) Math.floor(originY + event.getY() / cellSize);
+                    if (sparseBoard.isEmpty(x, y)) {
+                        sparseBoard.place(x, y, userChess);
+                        placeUserChess(x, y);
+                    }
+                }
+                break;
+        }
+        return true;
+    }
+
+    //无限棋盘的双指缩放，缩放中心保持不动，结束后按新的格子大小重新生成棋子图片
+    private class ScaleListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            float size = cellSize * detector.getScaleFactor();
+            size = Math.max(len / MAX_VISIBLE_CELLS, Math.min(len / MIN_VISIBLE_CELLS, size));
+            //缩放中心对应的棋盘坐标
+            float focusX = originX + detector.getFocusX() / cellSize;
+            float focusY = originY + detector.getFocusY() / cellSize;
+            cellSize = size;
+            originX = focusX - detector.getFocusX() / cellSize;
+            originY = focusY - detector.getFocusY() / cellSize;
+            invalidate();
+            return true;
+        }
+
+        @Override
+        public void onScaleEnd(ScaleGestureDetector detector) {
+            scaleChess();
+            invalidate();
+        }
+    }
+
     public void setCallBack(GameCallBack callBack) {
         this.callBack = callBack;
     }
@@ -329,6 +770,41 @@ public class FiveChessView extends View implements View.OnTouchListener {
         isUserBout = userBout;
     }
 
+    public boolean isUserBout() {
+        return isUserBout;
+    }
+
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    //本局已经落下的步数（不包括悔掉的步）
+    public int getHistoryCount() {
+        return historyCount;
+    }
+
+    //第i步的位置
+    public int getHistoryX(int i) {
+        return historyX[i];
+    }
+
+    public int getHistoryY(int i) {
+        return historyY[i];
+    }
+
+    //第i步的棋子颜色
+    public int getHistoryChess(int i) {
+        return historyChess[i];
+    }
+
+    public int getUserChess() {
+        return userChess;
+    }
+
     public void setUserChess(int userChess) {
         this.userChess = userChess;
     }
@@ -0,0 +1,77 @@
+package com.hao.benchmark;
+
+import com.hao.ai.Board;
+import com.hao.ai.Evaluator;
+import com.hao.ai.MoveGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 局面评估
+ * 增量更新（落子、评估、提子，即搜索中每个节点的开销）与整个棋盘重新计算对比，
+ * 每次操作对一组局面（4个）各执行一次
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+    @Param({"opening", "middlegame", "crowded"})
+    public String phase;
+
+    private Board[] boards;
+    private Evaluator[] evaluators;
+    private int[] sides;
+    //每个局面中试落的位置（排在第一的候选落点）
+    private int[] moves;
+
+    @Setup
+    public void setUp() {
+        String[] positions = Positions.get(phase);
+        boards = new Board[positions.length];
+        evaluators = new Evaluator[positions.length];
+        sides = new int[positions.length];
+        moves = new int[positions.length];
+        int[] list = new int[Positions.SIZE * Positions.SIZE];
+        for (int i = 0; i < positions.length; i++) {
+            boards[i] = new Board(Positions.SIZE);
+            evaluators[i] = new Evaluator(boards[i]);
+            MoveGenerator generator = new MoveGenerator(boards[i], evaluators[i]);
+            sides[i] = Positions.load(boards[i], positions[i]);
+            generator.getCandidates(list);
+            moves[i] = list[0];
+        }
+    }
+
+    @Benchmark
+    public int placeEvaluateRemove() {
+        int total = 0;
+        for (int i = 0; i < boards.length; i++) {
+            int x = moves[i] / Positions.SIZE;
+            int y = moves[i] % Positions.SIZE;
+            boards[i].place(x, y, sides[i]);
+            total += evaluators[i].evaluate(Board.opposite(sides[i]));
+            boards[i].remove(x, y);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int fullRecompute() {
+        int total = 0;
+        for (int i = 0; i < boards.length; i++) {
+            evaluators[i].onReset();
+            total += evaluators[i].evaluate(sides[i]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,80 @@
+package com.hao.benchmark;
+
+import com.hao.ai.Board;
+import com.hao.ai.Chess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 判断游戏结束，每次操作对一组局面（4个）各判断一次
+ * view：FiveChessView.checkGameOver判断五连的代码（Board.isFive(chessArray, x, y)，逐格数最后一步的四条线）；
+ * lastMove、fullScan：位棋盘上只检查最后一步所在的四条线、扫描整个棋盘，作为对比
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class GameOverBenchmark {
+    @Param({"opening", "middlegame", "crowded"})
+    public String phase;
+
+    private Board[] boards;
+    //与界面相同的棋盘数组
+    private int[][][] chessArrays;
+    //最后一步的位置和颜色
+    private int[] lastMoves;
+    private int[] lastChess;
+
+    @Setup
+    public void setUp() {
+        String[] positions = Positions.get(phase);
+        boards = new Board[positions.length];
+        chessArrays = new int[positions.length][Positions.SIZE][Positions.SIZE];
+        lastMoves = new int[positions.length];
+        lastChess = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            boards[i] = new Board(Positions.SIZE);
+            lastChess[i] = Board.opposite(Positions.load(boards[i], positions[i]));
+            String[] moves = positions[i].split(" ");
+            lastMoves[i] = Positions.parse(moves[moves.length - 1]);
+            boards[i].copyTo(chessArrays[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean view() {
+        boolean isOver = false;
+        for (int i = 0; i < chessArrays.length; i++) {
+            isOver |= Board.isFive(chessArrays[i], lastMoves[i] / Positions.SIZE, lastMoves[i] % Positions.SIZE);
+        }
+        return isOver;
+    }
+
+    @Benchmark
+    public boolean lastMove() {
+        boolean isOver = false;
+        for (int i = 0; i < boards.length; i++) {
+            isOver |= boards[i].isFive(lastMoves[i] / Positions.SIZE, lastMoves[i] % Positions.SIZE,
+                    lastChess[i]);
+        }
+        return isOver;
+    }
+
+    @Benchmark
+    public boolean fullScan() {
+        boolean isOver = false;
+        for (Board board : boards) {
+            isOver |= board.hasFive(Chess.WHITE) || board.hasFive(Chess.BLACK);
+        }
+        return isOver;
+    }
+}
@@ -0,0 +1,65 @@
+package com.hao.benchmark;
+
+import com.hao.ai.Board;
+import com.hao.ai.Evaluator;
+import com.hao.ai.MoveGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 候选落点生成
+ * 每次操作对一组局面（4个）各生成一次
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+    @Param({"opening", "middlegame", "crowded"})
+    public String phase;
+
+    private MoveGenerator[] generators;
+    private int[] sides;
+    private final int[] list = new int[Positions.SIZE * Positions.SIZE];
+
+    @Setup
+    public void setUp() {
+        String[] positions = Positions.get(phase);
+        generators = new MoveGenerator[positions.length];
+        sides = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            Board board = new Board(Positions.SIZE);
+            generators[i] = new MoveGenerator(board, new Evaluator(board));
+            sides[i] = Positions.load(board, positions[i]);
+        }
+    }
+
+    //搜索中使用的生成（对方有威胁时只返回应对的落点）
+    @Benchmark
+    public int generate() {
+        int total = 0;
+        for (int i = 0; i < generators.length; i++) {
+            total += generators[i].generate(sides[i], list);
+        }
+        return total;
+    }
+
+    //全部候选落点
+    @Benchmark
+    public int candidates() {
+        int total = 0;
+        for (MoveGenerator generator : generators) {
+            total += generator.getCandidates(list);
+        }
+        return total;
+    }
+}
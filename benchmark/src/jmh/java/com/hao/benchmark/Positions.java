@@ -0,0 +1,97 @@
+package com.hao.benchmark;
+
+import com.hao.ai.Board;
+import com.hao.ai.Chess;
+import com.hao.ai.GameNotation;
+
+/**
+ * 基准测试使用的固定局面
+ * 开局、中局取自固定种子的自我对弈，拥挤局面一局取自自我对弈，其余为固定种子随机填充（没有五连）。
+ * 记谱与GameNotation相同：列字母加行号，a列在左，1行在最下面；白棋先手
+ */
+
+public final class Positions {
+    //棋盘宽高
+    public static final int SIZE = 15;
+
+    //开局（6步）
+    public static final String[] OPENING = {
+            "i6 j8 j7 k8 i8 i7",
+            "f6 f8 h8 e7 h6 e5",
+            "h6 i8 i7 j7 j8 g5",
+            "j6 h6 f7 h7 h5 g6"
+    };
+
+    //中局（22步）
+    public static final String[] MIDDLEGAME = {
+            "i6 j8 j7 k8 i8 i7 k6 h9 j5 h6 k9 h7 h8 g7 l5 m4 l7 m8 l8 l6 m7 n6",
+            "f6 f8 h8 e7 h6 e5 i7 e6 e8 g9 h10 f4 d6 f5 j8 g5 h7 h9 h5 h4 g4 i9",
+            "j6 h6 f7 h7 h5 g6 j7 j8 i8 g5 i7 g8 g9 g4 g7 h8 i6 i9 h10 f5 k6 h9",
+            "h6 h10 g9 f10 e9 f9 f8 g7 i10 i9 h8 g8 e10 e8 h11 d7 c6 f7 e7 d6 d5 g4"
+    };
+
+    //拥挤局面（70步以上）
+    public static final String[] CROWDED = {
+            "j8 f8 f7 e7 h10 e9 e8 d9 g11 i9 g10 d10 g7 e10 h9 f9 g8 g9 c9 i10 "
+                    + "h11 d6 c5 d8 d7 d12 d11 h8 f10 c11 b12 f11 e6 d5 c8 f5 h13 h12 i7 e13 "
+                    + "b9 a10 b10 e12 e11 b11 g5 h6 i12 g6 j11 g14 c6 c7 a4 b5 i11 k11 j7 h7 "
+                    + "i8 k6 j10 j9 j13 k14 j12 j14 k10 l9 k13",
+            "d8 j12 i11 l11 f13 j7 j10 o4 c7 f10 m13 g11 f12 c15 c3 j9 b15 n7 e1 e5 "
+                    + "b1 i15 l14 n5 m11 k7 k10 a10 o12 n3 i13 j6 f2 l9 d4 a3 j5 o10 k6 i14 "
+                    + "o13 a15 o6 g8 m4 o7 g4 b9 b12 a2 k11 e8 n2 g14 l12 f15 m2 f7 h7 n9 "
+                    + "g6 a13 h4 j8 h12 k15 k9 b7 g10 e2 j4 e12 c5 l10 m9 d10 f8 k4 c2 e3 "
+                    + "n15 h10 m10 g2 l3 c11 g15 g3 o14 j14",
+            "n8 i3 m12 a3 e8 n11 l10 n4 o6 d2 a10 c6 k6 e2 c12 b2 d7 g1 a1 a7 "
+                    + "a11 c9 l12 k15 b11 h8 j14 m13 f8 m4 f14 e15 g12 j1 h14 e10 l8 j12 o14 j3 "
+                    + "e3 h4 g4 m2 i4 m15 i12 b10 g2 o13 a9 l14 a14 d4 i5 b12 h6 k9 c13 h11 "
+                    + "l13 c4 a5 m14 b9 a2 d10 h3 j6 h1 k7 f12 n6 i2 k12 h13 o11 k3 d6 g13 "
+                    + "a12 i9 b4 f4 l5 m3 o15 l6 g5 o12 h7 d15 n15 f6 o1 m1 d1 j15 g9 e9 "
+                    + "d13 a15 d5 k4 j4 c3 d12 h15 l9 l15",
+            "m3 d14 m8 k4 b3 i9 b2 k8 m13 e10 j6 d10 k14 g2 e5 n9 h13 l3 b5 a5 "
+                    + "f1 n4 g9 n7 d1 m4 d6 c12 i5 n11 o6 b6 g7 d5 m14 m10 i15 m2 o7 l10 "
+                    + "a12 g4 n12 j1 c5 h6 m6 f10 d9 c7 f3 e7 f5 j2 m12 f14 k11 c1 a4 h7 "
+                    + "k12 n14 n3 l4 d8 j3 b7 i1 g14 n10 b4 g10 h4 d4 b13 a10 i7 f2 b8 e12 "
+                    + "a9 o1 e6 e14 e11 l2 k5 j8 f4 h14 f7 b11 h12 n2 h10 n15 j12 c11 j7 j14 "
+                    + "c2 k6 o10 g3 l11 i14 e9 l7 d7 k15 m1 c6 k9 i10 e3 i6 j5 i13 a15 d2 "
+                    + "f8 m7 h1 o9 a8 g8 l15 a7 g12 o2"
+    };
+
+    private Positions() {
+    }
+
+    //按名称获取一组局面
+    public static String[] get(String phase) {
+        switch (phase) {
+            case "opening":
+                return OPENING;
+            case "middlegame":
+                return MIDDLEGAME;
+            case "crowded":
+                return CROWDED;
+            default:
+                throw new IllegalArgumentException("unknown phase: " + phase);
+        }
+    }
+
+    /**
+     * 按记谱依次落子
+     *
+     * @param board 空棋盘
+     * @param moves 记谱
+     * @return 轮到落子的一方
+     */
+    public static int load(Board board, String moves) {
+        int chess = Chess.WHITE;
+        for (String move : moves.split(" ")) {
+            int index = parse(move);
+            board.place(index / SIZE, index % SIZE, chess);
+            chess = Board.opposite(chess);
+        }
+        return chess;
+    }
+
+    //记谱中的一步转为位置（x * size + y）
+    public static int parse(String move) {
+        return GameNotation.parseMove(move, SIZE);
+    }
+}
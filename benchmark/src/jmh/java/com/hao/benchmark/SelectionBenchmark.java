@@ -0,0 +1,82 @@
+package com.hao.benchmark;
+
+import com.hao.ai.Engine;
+import com.hao.ai.SearchResult;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整选点（开局库以外的全部流程：杀棋求解、博弈树搜索）
+ * 单线程、按节点数限制搜索，结果与机器速度无关；每次操作前清空置换表，
+ * 每次操作对一组局面（4个）各选一次点。nodes为每秒搜索的节点数
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class SelectionBenchmark {
+    @Param({"opening", "middlegame", "crowded"})
+    public String phase;
+
+    @Param({"20000"})
+    public long nodeLimit;
+
+    private Engine[] engines;
+    private int[] sides;
+
+    //搜索的节点数，按时间换算为每秒节点数
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        String[] positions = Positions.get(phase);
+        engines = new Engine[positions.length];
+        sides = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            engines[i] = new Engine(Positions.SIZE);
+            engines[i].setThreadCount(1);
+            engines[i].setTimeLimit(0);
+            engines[i].setNodeLimit(nodeLimit);
+            sides[i] = Positions.load(engines[i].getBoard(), positions[i]);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTables() {
+        for (Engine engine : engines) {
+            engine.getTable().clear();
+        }
+    }
+
+    @Benchmark
+    public void select(Counters counters, Blackhole blackhole) {
+        for (int i = 0; i < engines.length; i++) {
+            blackhole.consume(engines[i].select(sides[i]));
+            SearchResult result = engines[i].getLastResult();
+            if (result != null) {
+                counters.nodes += result.getNodes();
+            }
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.hao.ai;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Created by ZhangHao on 2017/7/25.
+ * 五子棋AI
+ */
+
+public class AI {
+    //棋盘信息
+    private int[][] chessArray;
+    //电脑执子（默认黑子）
+    private int aiChess = Chess.BLACK;
+    //选点引擎（棋盘大小变化时在AI线程中重新创建）
+    private volatile Engine engine;
+    //引擎的位棋盘
+    private Board board;
+    //引擎的搜索（后台思考也使用）
+    private volatile ParallelSearcher searcher;
+    //ai落子结束回调
+    private AICallBack callBack;
+    //棋盘宽高（panelLength）
+    private int panelLength;
+    //无限棋盘，不为空时使用无限棋盘的引擎，AI不修改棋盘，由界面按回调落子；
+    //棋盘由界面线程修改，只在调用aiBout的线程中访问，AI线程使用aiBout时复制的副本
+    private SparseBoard sparseBoard;
+    //无限棋盘的引擎，第一次使用时创建
+    private UnboundedEngine unboundedEngine;
+    //AI线程（所有计算依次在同一个线程中进行）
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "ai");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    //正在进行的计算
+    private Future<?> task;
+    //局数，取消时加一，用于丢弃已经过时的计算结果（AI线程和界面线程都会检查）
+    private volatile int generation;
+    //最短显示时间（毫秒），计算用时不足时补足，0表示算完立即落子
+    private long minDelay = 0;
+    //每步搜索的时间预算（毫秒）
+    private long timeLimit = DEFAULT_TIME_LIMIT;
+    //默认每步搜索的时间预算（毫秒）
+    private static final long DEFAULT_TIME_LIMIT = 1000;
+    //后台思考的最长时间（毫秒）
+    private static final long PONDER_TIME_LIMIT = 60000;
+    //是否在玩家思考时后台思考
+    private boolean ponder = true;
+    //引擎的设置，棋盘大小变化重新创建引擎时沿用
+    private OpeningBook openingBook;
+    private long nodeLimit = 0;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    //置换表大小（MB）
+    private int hashSize = Engine.DEFAULT_HASH_SIZE;
+    //开局随机落子的种子，没有设置时每局不同
+    private boolean isSeeded;
+    private long seed;
+    //后台思考是否被取消（玩家落子或者重新开始）
+    private volatile boolean ponderCancelled = true;
+    //后台思考的结果，以及得到结果时（猜测玩家落子之后）的局面哈希
+    private SearchResult ponderResult;
+    private long ponderHash;
+
+    public AI(int[][] chessArray, AICallBack callBack) {
+        this.chessArray = chessArray;
+        this.callBack = callBack;
+        this.panelLength = chessArray.length;
+        createEngine();
+    }
+
+    //按当前棋盘大小创建引擎
+    private void createEngine() {
+        engine = new Engine(panelLength, hashSize);
+        applySettings(engine);
+        engine.setOpeningBook(openingBook);
+        board = engine.getBoard();
+        searcher = engine.getSearcher();
+    }
+
+    //新创建的引擎使用当前的设置
+    private void applySettings(Engine engine) {
+        engine.setThreadCount(threadCount);
+        engine.setTimeLimit(timeLimit);
+        engine.setNodeLimit(nodeLimit);
+        if (isSeeded) {
+            engine.setSeed(seed);
+        }
+    }
+
+    /**
+     * 更换棋盘（棋盘大小改变时），会取消正在进行的计算
+     * 大小不同时重新创建引擎，评分、候选落点、搜索的数组都按新的大小分配
+     *
+     * @param chessArray 新的棋盘
+     */
+    public void setChessArray(final int[][] chessArray) {
+        cancel();
+        //在AI线程中更换，排在已经取消的计算之后，不会与计算同时使用引擎
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                AI.this.chessArray = chessArray;
+                if (chessArray.length != panelLength) {
+                    engine.shutdown();
+                    panelLength = chessArray.length;
+                    createEngine();
+                }
+            }
+        });
+    }
+
+    /**
+     * 切换到无限棋盘（为空时回到普通棋盘），会取消正在进行的计算
+     * 无限棋盘模式下AI只通过回调给出落点，棋盘由界面线程修改，也不进行后台思考
+     *
+     * @param sparseBoard 无限棋盘
+     */
+    public void setSparseBoard(final SparseBoard sparseBoard) {
+        cancel();
+        this.sparseBoard = sparseBoard;
+        if (sparseBoard != null) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (unboundedEngine == null) {
+                        unboundedEngine = new UnboundedEngine(hashSize);
+                        applySettings(unboundedEngine.getEngine());
+                    }
+                }
+            });
+        }
+    }
+
+    //ai开始落子，在AI线程中计算，不阻塞调用线程
+    public void aiBout() {
+        //停止后台思考，结果留给这一步使用
+        stopPonder();
+        final int bout = generation;
+        //无限棋盘在这里复制，计算期间界面线程可以悔棋、清空
+        final SparseBoard snapshot = sparseBoard == null ? null : sparseBoard.copy();
+        task = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                think(bout, snapshot);
+            }
+        });
+    }
+
+    /**
+     * 取消正在进行的计算，之后该局的计算结果都会被丢弃
+     * 重新开始游戏前调用，避免旧的结果写入新的棋盘
+     */
+    public void cancel() {
+        synchronized (this) {
+            generation++;
+        }
+        stopPonder();
+        if (unboundedEngine != null) {
+            unboundedEngine.stop();
+        }
+        if (task != null) {
+            task.cancel(true);
+            task = null;
+        }
+    }
+
+    /**
+     * 计算结果是否属于当前一局，界面线程落子前调用：
+     * 回调已经发出之后才取消（重新开始、悔棋）时，过时的结果在这里被丢弃
+     *
+     * @param generation 回调中的局数
+     * @return 是否仍然有效
+     */
+    public boolean isCurrent(int generation) {
+        return generation == this.generation;
+    }
+
+    //释放AI线程（Activity销毁时调用）
+    public void release() {
+        cancel();
+        executor.shutdownNow();
+        engine.shutdown();
+        if (unboundedEngine != null) {
+            unboundedEngine.shutdown();
+        }
+    }
+
+    /**
+     * 选择最佳落点
+     *
+     * @param bout     开始计算时的局数，与当前不一致说明已经被取消
+     * @param snapshot 无限棋盘的副本，普通棋盘时为null
+     */
+    private void think(final int bout, SparseBoard snapshot) {
+        //只为当前一局清除停止标识：在此之后的cancel会使这次搜索立即结束
+        synchronized (this) {
+            if (bout != generation) {
+                return;
+            }
+            if (snapshot != null) {
+                unboundedEngine.resume();
+            } else {
+                engine.resume();
+            }
+        }
+        if (snapshot != null) {
+            thinkUnbounded(bout, snapshot);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        //同步位棋盘，评分只更新有变化的位置
+        board.sync(chessArray);
+        //玩家下在了猜测的位置，并且后台思考的时间已经足够时，用后台思考的结果代替博弈树搜索，
+        //开局库和杀棋求解仍然先进行
+        SearchResult pondered = null;
+        if (ponderResult != null && ponderHash == board.getHash()
+                && ponderResult.getTime() >= timeLimit) {
+            pondered = ponderResult;
+        }
+        Point max = engine.select(aiChess, pondered);
+        if (max == null) {
+            return;
+        }
+        //计算太快时补足最短显示时间
+        long delay = minDelay - (System.currentTimeMillis() - startTime);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                //被取消
+                return;
+            }
+        }
+        //已被取消的结果直接丢弃；chessArray由界面线程在回调中落子
+        if (bout != generation) {
+            return;
+        }
+        board.place(max.getX(), max.getY(), aiChess);
+        ponderResult = null;
+        //回调之后玩家才可能落子，所以在回调之前开始后台思考（已经五连时不需要）
+        if (ponder && !board.isFive(max.getX(), max.getY(), aiChess)) {
+            ponderCancelled = false;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    ponder(bout);
+                }
+            });
+        }
+        callBack.aiAtTheBell(max.getX(), max.getY(), bout);
+    }
+
+    //无限棋盘上选择最佳落点，只回调落点
+    private void thinkUnbounded(int bout, SparseBoard snapshot) {
+        long startTime = System.currentTimeMillis();
+        Point max = unboundedEngine.select(snapshot, aiChess);
+        if (max == null) {
+            return;
+        }
+        long delay = minDelay - (System.currentTimeMillis() - startTime);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+        if (bout != generation) {
+            return;
+        }
+        callBack.aiAtTheBell(max.getX(), max.getY(), bout);
+    }
+
+    /**
+     * 后台思考：猜测玩家最可能的落子，在猜测的局面上为AI搜索，直到玩家落子。
+     * 猜中时直接使用结果，猜不中时搜索过程中写入置换表的结果也能让下一步搜索更快
+     *
+     * @param bout 开始思考时的局数
+     */
+    private void ponder(int bout) {
+        if (ponderCancelled || bout != generation) {
+            return;
+        }
+        int userChess = Board.opposite(aiChess);
+        //优先使用刚才搜索时置换表中记录的玩家最佳应手，没有时快速搜索一次
+        int guess = -1;
+        long entry = engine.getTable().probe(board.getHash() ^ Zobrist.side(userChess));
+        if (entry != TranspositionTable.MISS) {
+            guess = TranspositionTable.getMove(entry);
+        }
+        if (guess < 0 || !board.isEmpty(guess / panelLength, guess % panelLength)) {
+            searcher.setTimeLimit(timeLimit / 4);
+            searcher.resume();
+            SearchResult result = ponderCancelled ? null : searcher.iterate(userChess);
+            searcher.setTimeLimit(timeLimit);
+            if (result == null || ponderCancelled) {
+                return;
+            }
+            guess = result.getX() * panelLength + result.getY();
+        }
+        board.place(guess / panelLength, guess % panelLength, userChess);
+        if (!board.isFive(guess / panelLength, guess % panelLength, userChess)) {
+            searcher.setTimeLimit(PONDER_TIME_LIMIT);
+            searcher.resume();
+            if (!ponderCancelled) {
+                ponderResult = searcher.iterate(aiChess);
+                ponderHash = board.getHash();
+            }
+            searcher.setTimeLimit(timeLimit);
+        }
+        board.remove(guess / panelLength, guess % panelLength);
+    }
+
+    //停止后台思考
+    private void stopPonder() {
+        ponderCancelled = true;
+        searcher.stop();
+    }
+
+    //是否在玩家思考时后台思考
+    public void setPonder(boolean ponder) {
+        this.ponder = ponder;
+    }
+
+    /**
+     * 在AI线程中修改引擎的设置，不会与计算同时使用引擎。
+     * 正在后台思考时先停止，否则设置要等到玩家落子后才生效；正在为AI选点时排在选点之后
+     *
+     * @param setting 修改设置
+     */
+    private void applyOnAiThread(Runnable setting) {
+        if (!ponderCancelled) {
+            stopPonder();
+        }
+        executor.execute(setting);
+    }
+
+    //设置开局库，为空时不使用
+    public void setOpeningBook(final OpeningBook openingBook) {
+        applyOnAiThread(new Runnable() {
+            @Override
+            public void run() {
+                AI.this.openingBook = openingBook;
+                engine.setOpeningBook(openingBook);
+            }
+        });
+    }
+
+    //设置开局随机落子的种子，棋盘大小变化重新创建引擎时沿用
+    public void setSeed(final long seed) {
+        applyOnAiThread(new Runnable() {
+            @Override
+            public void run() {
+                isSeeded = true;
+                AI.this.seed = seed;
+                engine.setSeed(seed);
+            }
+        });
+    }
+
+    public void setAiChess(int aiChess) {
+        this.aiChess = aiChess;
+    }
+
+    //最短显示时间（毫秒），与计算用时无关
+    public void setMinDelay(long minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    //每步搜索的时间预算（毫秒）
+    public void setTimeLimit(final long timeLimit) {
+        applyOnAiThread(new Runnable() {
+            @Override
+            public void run() {
+                AI.this.timeLimit = timeLimit;
+                engine.setTimeLimit(timeLimit);
+                if (unboundedEngine != null) {
+                    unboundedEngine.getEngine().setTimeLimit(timeLimit);
+                }
+            }
+        });
+    }
+
+    //每步搜索的节点数预算
+    public void setNodeLimit(final long nodeLimit) {
+        applyOnAiThread(new Runnable() {
+            @Override
+            public void run() {
+                AI.this.nodeLimit = nodeLimit;
+                engine.setNodeLimit(nodeLimit);
+                if (unboundedEngine != null) {
+                    unboundedEngine.getEngine().setNodeLimit(nodeLimit);
+                }
+            }
+        });
+    }
+
+    //设置搜索线程数
+    public void setThreadCount(final int threadCount) {
+        applyOnAiThread(new Runnable() {
+            @Override
+            public void run() {
+                AI.this.threadCount = threadCount;
+                engine.setThreadCount(threadCount);
+                if (unboundedEngine != null) {
+                    unboundedEngine.getEngine().setThreadCount(threadCount);
+                }
+            }
+        });
+    }
+
+    //设置置换表大小（MB）
+    public void setHashSize(final int megabytes) {
+        applyOnAiThread(new Runnable() {
+            @Override
+            public void run() {
+                hashSize = megabytes;
+                engine.setHashSize(megabytes);
+                if (unboundedEngine != null) {
+                    unboundedEngine.getEngine().setHashSize(megabytes);
+                }
+            }
+        });
+    }
+}
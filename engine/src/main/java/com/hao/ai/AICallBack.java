@@ -0,0 +1,18 @@
+package com.hao.ai;
+
+/**
+ * Created by ZhangHao on 2017/7/25.
+ * AI落子完成回调
+ */
+
+public interface AICallBack {
+    /**
+     * AI选好落点（在AI线程中回调），由界面线程落子
+     * 落子前需要用AI.isCurrent(generation)确认结果没有过时，取消之后才到达的结果直接丢弃
+     *
+     * @param x          落子位置
+     * @param y          落子位置
+     * @param generation 开始计算时的局数
+     */
+    void aiAtTheBell(int x, int y, int generation);
+}
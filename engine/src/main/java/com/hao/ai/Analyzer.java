@@ -0,0 +1,217 @@
+package com.hao.ai;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 批量局面分析
+ * 从对局记录中逐局读出每一步之前的局面，交给固定数量的分析线程，每个线程为每种棋盘大小复用一个单线程引擎。
+ * 结果按读入顺序输出，每行：局序号 步数 实际落点 最佳落点 评分 深度 节点数（杀棋为 win - -）。
+ * 未输出的结果最多为线程数的WINDOW_PER_THREAD倍，输出跟不上时读入也会停下，内存占用不随记录文件增长。
+ * 每个局面分析前清空置换表，结果与线程数、调度顺序无关
+ * 用法：Analyzer 记录文件 [--nodes 每个局面的节点数] [--threads 线程数] [--from 起始步数] [--games 最多局数] [--out 输出文件]
+ */
+
+public class Analyzer {
+    //默认每个局面的节点数
+    private static final long DEFAULT_NODE_LIMIT = 20000;
+    //每个引擎的置换表大小（MB）
+    private static final int HASH_SIZE = 4;
+    //每个线程最多的未输出结果数
+    private static final int WINDOW_PER_THREAD = 4;
+    //至少有这么多棋子时才分析（之前是随机开局）
+    private static final int MIN_PLY = 2;
+
+    //每个局面的节点数
+    private final long nodeLimit;
+    //从第几步开始分析
+    private final int fromPly;
+    //所有线程创建的引擎，结束时关闭
+    private final List<Engine> engines = Collections.synchronizedList(new ArrayList<Engine>());
+    //每个分析线程的引擎和棋盘，按棋盘大小
+    private final ThreadLocal<Map<Integer, Worker>> workers = new ThreadLocal<Map<Integer, Worker>>() {
+        @Override
+        protected Map<Integer, Worker> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
+    //一个分析线程在一种棋盘大小上复用的引擎和棋盘
+    private static class Worker {
+        final Engine engine;
+        final int[][] chessArray;
+
+        Worker(Engine engine, int size) {
+            this.engine = engine;
+            this.chessArray = new int[size][size];
+        }
+    }
+
+    public Analyzer(long nodeLimit, int fromPly) {
+        this.nodeLimit = nodeLimit;
+        this.fromPly = Math.max(MIN_PLY, fromPly);
+    }
+
+    /**
+     * 分析对局记录中的所有局面
+     *
+     * @param reader   对局记录
+     * @param out      输出
+     * @param threads  分析线程数
+     * @param maxGames 最多分析的局数
+     * @return 分析的局面数
+     */
+    public long run(GameRecordReader reader, Writer out, int threads, long maxGames)
+            throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int window = threads * WINDOW_PER_THREAD;
+        long positions = 0;
+        try {
+            while (reader.getGameCount() < maxGames && reader.next()) {
+                final long game = reader.getGameCount();
+                final int size = reader.getSize();
+                final int firstChess = reader.getFirstChess();
+                final int[] moves = new int[reader.getMoveCount()];
+                for (int i = 0; i < moves.length; i++) {
+                    moves[i] = reader.getMove(i);
+                }
+                for (int ply = fromPly; ply < moves.length; ply++) {
+                    //输出最早的结果之后才继续读入
+                    if (pending.size() >= window) {
+                        write(pending.poll(), out);
+                    }
+                    final int position = ply;
+                    pending.add(executor.submit(new Callable<String>() {
+                        @Override
+                        public String call() {
+                            return analyze(game, size, firstChess, moves, position);
+                        }
+                    }));
+                    positions++;
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), out);
+            }
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            for (Engine engine : engines) {
+                engine.shutdown();
+            }
+        }
+        return positions;
+    }
+
+    //等待一个结果并输出
+    private static void write(Future<String> result, Writer out) throws IOException, InterruptedException {
+        try {
+            out.write(result.get());
+            out.write('\n');
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 分析一个局面
+     *
+     * @param game       局序号
+     * @param size       棋盘宽高
+     * @param firstChess 先手颜色
+     * @param moves      这一局的所有落点
+     * @param ply        局面之前的步数，局面之后实际下在moves[ply]
+     * @return 一行结果
+     */
+    private String analyze(long game, int size, int firstChess, int[] moves, int ply) {
+        Worker worker = getWorker(size);
+        int[][] chessArray = worker.chessArray;
+        for (int[] column : chessArray) {
+            for (int j = 0; j < size; j++) {
+                column[j] = Chess.NONE;
+            }
+        }
+        int second = Board.opposite(firstChess);
+        for (int i = 0; i < ply; i++) {
+            chessArray[moves[i] / size][moves[i] % size] = (i & 1) == 0 ? firstChess : second;
+        }
+        Engine engine = worker.engine;
+        engine.clear();
+        engine.getBoard().sync(chessArray);
+        Point best = engine.select((ply & 1) == 0 ? firstChess : second);
+        SearchResult result = engine.getLastResult();
+        StringBuilder line = new StringBuilder();
+        line.append(game).append(' ').append(ply + 1).append(' ')
+                .append(GameNotation.formatMove(moves[ply], size)).append(' ')
+                .append(best == null ? "-" : GameNotation.formatMove(best.getX() * size + best.getY(), size));
+        if (result == null) {
+            line.append(" win - -");
+        } else {
+            line.append(' ').append(result.getScore()).append(' ').append(result.getDepth())
+                    .append(' ').append(result.getNodes());
+        }
+        return line.toString();
+    }
+
+    //当前线程在指定棋盘大小上的引擎，第一次使用时创建
+    private Worker getWorker(int size) {
+        Map<Integer, Worker> map = workers.get();
+        Worker worker = map.get(size);
+        if (worker == null) {
+            Engine engine = new Engine(size, HASH_SIZE);
+            engine.setThreadCount(1);
+            engine.setTimeLimit(0);
+            engine.setNodeLimit(nodeLimit);
+            engines.add(engine);
+            worker = new Worker(engine, size);
+            map.put(size, worker);
+        }
+        return worker;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length % 2 == 0) {
+            System.err.println("usage: Analyzer <records> [--nodes n] [--threads n] [--from ply] [--games n] [--out file]");
+            System.exit(1);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        long nodeLimit = options.containsKey("nodes") ? Long.parseLong(options.get("nodes")) : DEFAULT_NODE_LIMIT;
+        int threads = options.containsKey("threads") ? Integer.parseInt(options.get("threads"))
+                : Runtime.getRuntime().availableProcessors();
+        int fromPly = options.containsKey("from") ? Integer.parseInt(options.get("from")) : MIN_PLY;
+        long maxGames = options.containsKey("games") ? Long.parseLong(options.get("games")) : Long.MAX_VALUE;
+        Writer out = new BufferedWriter(new OutputStreamWriter(options.containsKey("out")
+                ? new FileOutputStream(options.get("out")) : System.out, "UTF-8"));
+        GameRecordReader reader = new GameRecordReader(new File(args[0]));
+        long start = System.currentTimeMillis();
+        long positions;
+        try {
+            positions = new Analyzer(nodeLimit, fromPly).run(reader, out, threads, maxGames);
+        } finally {
+            reader.close();
+            out.close();
+        }
+        long time = Math.max(1, System.currentTimeMillis() - start);
+        System.err.println(String.format("games %d  positions %d  threads %d  %.1f positions/s",
+                reader.getGameCount(), positions, threads, positions * 1000.0 / time));
+    }
+}
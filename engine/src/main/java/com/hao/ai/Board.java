@@ -0,0 +1,481 @@
+package com.hao.ai;
+
+/**
+ * 位棋盘
+ * 按颜色把每一行、每一列以及两个斜向上的棋子各自压缩成一个int（每个bit对应线上的一个位置），
+ * 连子、五连都通过移位与掩码计算，不再逐格遍历chessArray
+ */
+
+public class Board {
+    /**
+     * 方向（与chessArray[x][y]下标对应）
+     * HORIZONTAL 横向，y变化
+     * VERTICAL 纵向，x变化
+     * LEFT_SLASH 左斜（左上到右下），x、y同时增加
+     * RIGHT_SLASH 右斜（右上到左下），x增加、y减少
+     */
+    public static final int HORIZONTAL = 0;
+    public static final int VERTICAL = 1;
+    public static final int LEFT_SLASH = 2;
+    public static final int RIGHT_SLASH = 3;
+    //方向数
+    public static final int DIRECTION_COUNT = 4;
+    //对称变换数（4种旋转各自可以再翻转），第0种为不变换
+    public static final int SYMMETRY_COUNT = 8;
+    //每个方向上x、y的增量
+    static final int[] DX = {0, 1, 1, 1};
+    static final int[] DY = {1, 0, 1, -1};
+
+    //棋盘宽高
+    private final int size;
+    //每条线上的棋子 lines[棋子颜色][方向][线的序号]
+    private final int[][][] lines;
+    //每条线上的有效位置（斜线长短不一） validMasks[方向][线的序号]
+    private final int[][] validMasks;
+    //每个位置的棋子 cells[x * size + y]
+    private final int[] cells;
+    //棋盘上的棋子数
+    private int stoneCount;
+    //每种对称变换后局面的Zobrist哈希，hashes[0]即为局面本身的哈希
+    private final long[] hashes = new long[SYMMETRY_COUNT];
+    //每种对称变换下每个位置变换后的位置 symmetries[变换][x * size + y]，以及逆变换
+    private final int[][] symmetries;
+    private final int[][] inverseSymmetries;
+    //落子栈，只记录make的落子：(x * size + y) << 2 | 棋子颜色
+    private final int[] moveStack;
+    //落子栈中的步数
+    private int moveCount;
+    //棋盘变化回调
+    private BoardListener[] listeners = new BoardListener[0];
+
+    public Board(int size) {
+        if (size < 5 || size > Zobrist.MAX_SIZE) {
+            throw new IllegalArgumentException("unsupported board size: " + size);
+        }
+        this.size = size;
+        this.cells = new int[size * size];
+        this.moveStack = new int[size * size];
+        int diagonalCount = size * 2 - 1;
+        lines = new int[3][][];
+        for (int chess = 1; chess < 3; chess++) {
+            lines[chess] = new int[][]{new int[size], new int[size],
+                    new int[diagonalCount], new int[diagonalCount]};
+        }
+        int full = (1 << size) - 1;
+        validMasks = new int[][]{new int[size], new int[size],
+                new int[diagonalCount], new int[diagonalCount]};
+        for (int i = 0; i < size; i++) {
+            validMasks[HORIZONTAL][i] = full;
+            validMasks[VERTICAL][i] = full;
+        }
+        for (int i = 0; i < diagonalCount; i++) {
+            //左斜 x - y = i - (size - 1)
+            int k = i - (size - 1);
+            validMasks[LEFT_SLASH][i] = rangeMask(Math.max(0, k), Math.min(size - 1, size - 1 + k));
+            //右斜 x + y = i
+            validMasks[RIGHT_SLASH][i] = rangeMask(Math.max(0, i - size + 1), Math.min(size - 1, i));
+        }
+        symmetries = new int[SYMMETRY_COUNT][size * size];
+        inverseSymmetries = new int[SYMMETRY_COUNT][size * size];
+        for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry++) {
+            for (int i = 0; i < size * size; i++) {
+                int x = i / size;
+                int y = i % size;
+                //bit0 上下翻转，bit1 左右翻转，bit2 沿主对角线翻转
+                if ((symmetry & 1) != 0) {
+                    x = size - 1 - x;
+                }
+                if ((symmetry & 2) != 0) {
+                    y = size - 1 - y;
+                }
+                int index = (symmetry & 4) != 0 ? y * size + x : x * size + y;
+                symmetries[symmetry][i] = index;
+                inverseSymmetries[symmetry][index] = i;
+            }
+        }
+    }
+
+    //根据chessArray创建位棋盘
+    public static Board fromArray(int[][] chessArray) {
+        Board board = new Board(chessArray.length);
+        board.load(chessArray);
+        return board;
+    }
+
+    //bit from到to（包含）全部为1的掩码
+    private static int rangeMask(int from, int to) {
+        return ((1 << (to - from + 1)) - 1) << from;
+    }
+
+    //对手的棋子颜色
+    public static int opposite(int chess) {
+        return chess == Chess.WHITE ? Chess.BLACK : Chess.WHITE;
+    }
+
+    /**
+     * 指定点所在线的序号
+     *
+     * @param direction 方向
+     * @param x         数组下标
+     * @param y         数组下标
+     * @return 线的序号
+     */
+    public int lineIndex(int direction, int x, int y) {
+        switch (direction) {
+            case HORIZONTAL:
+                return x;
+            case VERTICAL:
+                return y;
+            case LEFT_SLASH:
+                return x - y + size - 1;
+            default:
+                return x + y;
+        }
+    }
+
+    /**
+     * 指定点在所在线中对应的bit
+     *
+     * @param direction 方向
+     * @param x         数组下标
+     * @param y         数组下标
+     * @return bit下标
+     */
+    public int bitIndex(int direction, int x, int y) {
+        return direction == HORIZONTAL ? y : x;
+    }
+
+    //指定点所在线上指定颜色的棋子
+    public int getLine(int chess, int direction, int x, int y) {
+        return lines[chess][direction][lineIndex(direction, x, y)];
+    }
+
+    //指定点所在线上对指定颜色来说被堵住的位置（对手棋子以及棋盘以外）
+    public int getBlocked(int chess, int direction, int x, int y) {
+        int index = lineIndex(direction, x, y);
+        return lines[opposite(chess)][direction][index] | ~validMasks[direction][index];
+    }
+
+    //添加棋盘变化回调
+    public void addListener(BoardListener listener) {
+        BoardListener[] newListeners = new BoardListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
+
+    //落子
+    public void place(int x, int y, int chess) {
+        set(x, y, chess);
+        for (BoardListener listener : listeners) {
+            listener.onPlace(x, y, chess);
+        }
+    }
+
+    //提子
+    public void remove(int x, int y) {
+        int chess = cells[x * size + y];
+        if (chess == Chess.NONE) {
+            return;
+        }
+        unset(x, y, chess);
+        for (BoardListener listener : listeners) {
+            listener.onRemove(x, y, chess);
+        }
+    }
+
+    /**
+     * 落子并压入落子栈，与unmake成对使用，评分、哈希等随落子一起增量更新。
+     * 搜索中的试探落子都通过make/unmake进行，不需要复制棋盘；place/remove不进入落子栈
+     *
+     * @param move  落点（x * size + y）
+     * @param chess 棋子颜色
+     */
+    public void make(int move, int chess) {
+        moveStack[moveCount++] = move << 2 | chess;
+        place(move / size, move % size, chess);
+    }
+
+    /**
+     * 撤销最后一次make
+     *
+     * @return 被撤销的落点（x * size + y）
+     * @throws IllegalStateException 落子栈为空（load、sync、place的棋子不能撤销）
+     */
+    public int unmake() {
+        if (moveCount == 0) {
+            throw new IllegalStateException("no move to unmake");
+        }
+        int move = moveStack[--moveCount] >> 2;
+        remove(move / size, move % size);
+        return move;
+    }
+
+    //落子栈中的步数
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    //落子栈中第i步的落点（x * size + y）
+    public int getMove(int i) {
+        return moveStack[i] >> 2;
+    }
+
+    //落子栈中第i步的棋子颜色
+    public int getMoveChess(int i) {
+        return moveStack[i] & 3;
+    }
+
+    //修改位棋盘（落子），不回调
+    private void set(int x, int y, int chess) {
+        cells[x * size + y] = chess;
+        updateHashes(chess, x * size + y);
+        int[][] own = lines[chess];
+        own[HORIZONTAL][x] |= 1 << y;
+        own[VERTICAL][y] |= 1 << x;
+        own[LEFT_SLASH][x - y + size - 1] |= 1 << x;
+        own[RIGHT_SLASH][x + y] |= 1 << x;
+        stoneCount++;
+    }
+
+    //修改位棋盘（提子），不回调
+    private void unset(int x, int y, int chess) {
+        cells[x * size + y] = Chess.NONE;
+        updateHashes(chess, x * size + y);
+        int[][] own = lines[chess];
+        own[HORIZONTAL][x] &= ~(1 << y);
+        own[VERTICAL][y] &= ~(1 << x);
+        own[LEFT_SLASH][x - y + size - 1] &= ~(1 << x);
+        own[RIGHT_SLASH][x + y] &= ~(1 << x);
+        stoneCount--;
+    }
+
+    //落子、提子时更新每种对称变换的哈希
+    private void updateHashes(int chess, int index) {
+        for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry++) {
+            hashes[symmetry] ^= Zobrist.key(chess, symmetries[symmetry][index]);
+        }
+    }
+
+    //清空棋盘
+    public void clear() {
+        clearCells();
+        for (BoardListener listener : listeners) {
+            listener.onReset();
+        }
+    }
+
+    private void clearCells() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = Chess.NONE;
+        }
+        for (int chess = 1; chess < 3; chess++) {
+            for (int[] directionLines : lines[chess]) {
+                for (int i = 0; i < directionLines.length; i++) {
+                    directionLines[i] = 0;
+                }
+            }
+        }
+        stoneCount = 0;
+        moveCount = 0;
+        for (int symmetry = 0; symmetry < SYMMETRY_COUNT; symmetry++) {
+            hashes[symmetry] = 0;
+        }
+    }
+
+    //从chessArray载入棋盘（整体重建）
+    public void load(int[][] chessArray) {
+        clearCells();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (chessArray[i][j] != Chess.NONE) {
+                    set(i, j, chessArray[i][j]);
+                }
+            }
+        }
+        for (BoardListener listener : listeners) {
+            listener.onReset();
+        }
+    }
+
+    /**
+     * 与chessArray同步，只对有变化的位置落子或提子，
+     * 使回调的增量数据只更新受影响的部分
+     *
+     * @param chessArray 棋盘信息
+     */
+    public void sync(int[][] chessArray) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int chess = chessArray[i][j];
+                if (cells[i * size + j] != chess) {
+                    remove(i, j);
+                    if (chess != Chess.NONE) {
+                        place(i, j, chess);
+                    }
+                }
+            }
+        }
+    }
+
+    //与另一个位棋盘同步，只对有变化的位置落子或提子
+    public void sync(Board other) {
+        for (int i = 0; i < cells.length; i++) {
+            int chess = other.cells[i];
+            if (cells[i] != chess) {
+                remove(i / size, i % size);
+                if (chess != Chess.NONE) {
+                    place(i / size, i % size, chess);
+                }
+            }
+        }
+    }
+
+    //将棋盘写回chessArray
+    public void copyTo(int[][] chessArray) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                chessArray[i][j] = cells[i * size + j];
+            }
+        }
+    }
+
+    //判断一条线上是否存在五子相连
+    public static boolean isFive(int line) {
+        return (line & (line >>> 1) & (line >>> 2) & (line >>> 3) & (line >>> 4)) != 0;
+    }
+
+    /**
+     * 判断经过指定点的四条线上是否存在五子相连
+     *
+     * @param x     数组下标
+     * @param y     数组下标
+     * @param chess 棋子颜色
+     * @return 是否五连
+     */
+    public boolean isFive(int x, int y, int chess) {
+        int[][] own = lines[chess];
+        return isFive(own[HORIZONTAL][x])
+                || isFive(own[VERTICAL][y])
+                || isFive(own[LEFT_SLASH][x - y + size - 1])
+                || isFive(own[RIGHT_SLASH][x + y]);
+    }
+
+    //判断棋盘上是否存在指定颜色的五子相连
+    public boolean hasFive(int chess) {
+        for (int[] directionLines : lines[chess]) {
+            for (int line : directionLines) {
+                if (isFive(line)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 逐格判断chessArray中经过(x, y)的四条线上是否五子相连（界面判断游戏结束时使用，不需要位棋盘）
+     *
+     * @param chessArray 棋盘
+     * @param x          数组下标
+     * @param y          数组下标
+     * @return 是否与(x, y)的棋子五连
+     */
+    public static boolean isFive(int[][] chessArray, int x, int y) {
+        return countSame(chessArray, x, y, 1, 0) >= 5 || countSame(chessArray, x, y, 0, 1) >= 5
+                || countSame(chessArray, x, y, 1, 1) >= 5 || countSame(chessArray, x, y, 1, -1) >= 5;
+    }
+
+    //(x, y)所在直线上向两个方向连续的同色棋子数（包括自己）
+    private static int countSame(int[][] chessArray, int x, int y, int dx, int dy) {
+        int size = chessArray.length;
+        int chess = chessArray[x][y];
+        int count = 1;
+        for (int i = x + dx, j = y + dy; i >= 0 && i < size && j >= 0 && j < size
+                && chessArray[i][j] == chess; i += dx, j += dy) {
+            count++;
+        }
+        for (int i = x - dx, j = y - dy; i >= 0 && i < size && j >= 0 && j < size
+                && chessArray[i][j] == chess; i -= dx, j -= dy) {
+            count++;
+        }
+        return count;
+    }
+
+    public int get(int x, int y) {
+        return cells[x * size + y];
+    }
+
+    public boolean isEmpty(int x, int y) {
+        return cells[x * size + y] == Chess.NONE;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHash() {
+        return hashes[0];
+    }
+
+    //指定对称变换后局面的哈希
+    public long getHash(int symmetry) {
+        return hashes[symmetry];
+    }
+
+    /**
+     * 标准对称变换：8种对称变换中哈希最小的一种，
+     * 互相对称的局面在各自的标准变换下哈希相同，可以共用同一条记录
+     *
+     * @return 对称变换
+     */
+    public int getCanonicalSymmetry() {
+        int best = 0;
+        for (int symmetry = 1; symmetry < SYMMETRY_COUNT; symmetry++) {
+            if (hashes[symmetry] < hashes[best]) {
+                best = symmetry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 局面本身具有的对称性：哪些对称变换后局面不变
+     *
+     * @return 第i位为1表示第i种对称变换后局面不变（第0位总是1）
+     */
+    public int getSymmetryMask() {
+        int mask = 1;
+        for (int symmetry = 1; symmetry < SYMMETRY_COUNT; symmetry++) {
+            if (hashes[symmetry] == hashes[0] && isSymmetric(symmetry)) {
+                mask |= 1 << symmetry;
+            }
+        }
+        return mask;
+    }
+
+    //逐个位置确认对称（排除哈希冲突）
+    private boolean isSymmetric(int symmetry) {
+        int[] map = symmetries[symmetry];
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[map[i]] != cells[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //位置（x * size + y）在对称变换后的位置
+    public int transform(int symmetry, int index) {
+        return symmetries[symmetry][index];
+    }
+
+    //对称变换后的位置还原为原来的位置
+    public int inverseTransform(int symmetry, int index) {
+        return inverseSymmetries[symmetry][index];
+    }
+
+    public int getStoneCount() {
+        return stoneCount;
+    }
+}
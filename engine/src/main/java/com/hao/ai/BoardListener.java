@@ -0,0 +1,17 @@
+package com.hao.ai;
+
+/**
+ * 位棋盘变化回调
+ * 评分等需要跟随棋盘增量更新的数据通过此接口接收落子、提子
+ */
+
+public interface BoardListener {
+    //落子之后回调
+    void onPlace(int x, int y, int chess);
+
+    //提子之后回调
+    void onRemove(int x, int y, int chess);
+
+    //棋盘被整体清空或重新载入之后回调
+    void onReset();
+}
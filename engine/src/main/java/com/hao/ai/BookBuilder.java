@@ -0,0 +1,229 @@
+package com.hao.ai;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 开局库生成工具
+ * 统计对局前若干步中每个局面（按标准对称变换归并）下每个落点的胜负，
+ * 胜一局记2分、和一局记1分，写成按哈希排序的开局库文件。
+ * 可以先载入已有的开局库再加入新的自我对弈结果，逐步扩充。
+ * 自我对弈的随机开局只用来让对局各不相同，不计入开局库；种子相同时生成的开局库相同
+ * 用法：BookBuilder 输出文件 对局数 [--nodes 每步节点数] [--seed 种子] [--size 棋盘宽高]
+ * [--plies 记录的步数] [--book 已有开局库]
+ */
+
+public class BookBuilder {
+    //默认只记录前10步
+    private static final int DEFAULT_MAX_PLY = 10;
+    //默认每步搜索的节点数
+    private static final long DEFAULT_NODE_LIMIT = 20000;
+    //自我对弈开始时随机落子的步数
+    private static final int RANDOM_PLIES = 2;
+    //权重上限（文件中为无符号16位）
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    //棋盘宽高
+    private final int size;
+    //记录的最大步数
+    private final int maxPly;
+    //每个局面每个落点的权重 weights[局面哈希][落点]
+    private final Map<Long, Map<Integer, Integer>> weights = new HashMap<>();
+
+    public BookBuilder(int size, int maxPly) {
+        this.size = size;
+        this.maxPly = maxPly;
+    }
+
+    //载入已有的开局库
+    public void load(OpeningBook book) {
+        if (book.getSize() != size) {
+            throw new IllegalArgumentException("board size mismatch: " + book.getSize());
+        }
+        for (int i = 0; i < book.getCount(); i++) {
+            addWeight(book.getKey(i), book.getMove(i), book.getWeight(i));
+        }
+    }
+
+    /**
+     * 加入一局棋
+     *
+     * @param firstChess 先手颜色
+     * @param moves      依次落子的位置（x * size + y）
+     * @param winner     胜者颜色，和棋为Chess.NONE
+     */
+    public void addGame(int firstChess, int[] moves, int winner) {
+        addGame(firstChess, moves, winner, 0);
+    }
+
+    /**
+     * 加入一局棋，前fromPly步只落子不记录（随机开局等不是选出来的落点）
+     *
+     * @param firstChess 先手颜色
+     * @param moves      依次落子的位置（x * size + y）
+     * @param winner     胜者颜色，和棋为Chess.NONE
+     * @param fromPly    从第几步开始记录
+     */
+    public void addGame(int firstChess, int[] moves, int winner, int fromPly) {
+        Board board = new Board(size);
+        int chess = firstChess;
+        for (int ply = 0; ply < moves.length && ply < maxPly; ply++) {
+            if (ply >= fromPly) {
+                int symmetry = board.getCanonicalSymmetry();
+                long key = board.getHash(symmetry) ^ Zobrist.side(chess);
+                int weight = winner == chess ? 2 : winner == Chess.NONE ? 1 : 0;
+                addWeight(key, board.transform(symmetry, moves[ply]), weight);
+            }
+            board.place(moves[ply] / size, moves[ply] % size, chess);
+            chess = Board.opposite(chess);
+        }
+    }
+
+    private void addWeight(long key, int move, int weight) {
+        Map<Integer, Integer> moveWeights = weights.get(key);
+        if (moveWeights == null) {
+            moveWeights = new HashMap<>();
+            weights.put(key, moveWeights);
+        }
+        Integer old = moveWeights.get(move);
+        moveWeights.put(move, Math.min(MAX_WEIGHT, (old == null ? 0 : old) + weight));
+    }
+
+    /**
+     * 写出开局库文件，权重为0（只输过）的落点不写入
+     *
+     * @param file 输出文件
+     * @throws IOException 写入失败
+     */
+    public void write(File file) throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, Integer>> position : weights.entrySet()) {
+            for (Map.Entry<Integer, Integer> move : position.getValue().entrySet()) {
+                if (move.getValue() > 0) {
+                    entries.add(new long[]{position.getKey(), move.getKey(), move.getValue()});
+                }
+            }
+        }
+        //按哈希从小到大，同一局面按权重从大到小
+        Collections.sort(entries, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                if (a[0] != b[0]) {
+                    return a[0] < b[0] ? -1 : 1;
+                }
+                return a[2] != b[2] ? (a[2] > b[2] ? -1 : 1) : (a[1] < b[1] ? -1 : a[1] > b[1] ? 1 : 0);
+            }
+        });
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(size);
+            out.writeInt(entries.size());
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) entry[2]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 自我对弈一局：前两步在中间随机落子（不记录），之后按节点数限制搜索
+     *
+     * @param random    随机数
+     * @param nodeLimit 每步搜索的节点数
+     * @return 胜者颜色，和棋为Chess.NONE
+     */
+    public int playGame(Random random, long nodeLimit) {
+        Board board = new Board(size);
+        Evaluator evaluator = new Evaluator(board);
+        MoveGenerator generator = new MoveGenerator(board, evaluator);
+        Searcher searcher = new Searcher(board, evaluator, generator, new TranspositionTable(16));
+        searcher.setTimeLimit(0);
+        searcher.setNodeLimit(nodeLimit);
+        int[] moves = new int[size * size];
+        int chess = Chess.WHITE;
+        int winner = Chess.NONE;
+        int ply = 0;
+        while (ply < moves.length) {
+            int move;
+            if (ply < RANDOM_PLIES) {
+                //中间5x5内随机选一个空位
+                do {
+                    move = (size / 2 - 2 + random.nextInt(5)) * size + size / 2 - 2 + random.nextInt(5);
+                } while (!board.isEmpty(move / size, move % size));
+            } else {
+                SearchResult result = searcher.search(chess);
+                if (result == null) {
+                    //棋盘已满
+                    break;
+                }
+                move = result.getX() * size + result.getY();
+            }
+            moves[ply++] = move;
+            board.place(move / size, move % size, chess);
+            if (board.isFive(move / size, move % size, chess)) {
+                winner = chess;
+                break;
+            }
+            chess = Board.opposite(chess);
+        }
+        addGame(Chess.WHITE, copyOf(moves, ply), winner, RANDOM_PLIES);
+        return winner;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static void usage() {
+        System.err.println("usage: BookBuilder <output> <games> [--nodes n] [--seed n] [--size n] "
+                + "[--plies n] [--book existingBook]");
+        System.exit(1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            usage();
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                usage();
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        File output = new File(args[0]);
+        int games = Integer.parseInt(args[1]);
+        long nodeLimit = options.containsKey("nodes") ? Long.parseLong(options.get("nodes")) : DEFAULT_NODE_LIMIT;
+        long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : 1;
+        int size = options.containsKey("size") ? Integer.parseInt(options.get("size")) : 15;
+        int maxPly = options.containsKey("plies") ? Integer.parseInt(options.get("plies")) : DEFAULT_MAX_PLY;
+        BookBuilder builder = new BookBuilder(size, maxPly);
+        if (options.containsKey("book")) {
+            builder.load(OpeningBook.open(new File(options.get("book"))));
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < games; i++) {
+            int winner = builder.playGame(random, nodeLimit);
+            System.out.println("game " + (i + 1) + ": " + (winner == Chess.WHITE ? "white"
+                    : winner == Chess.BLACK ? "black" : "draw"));
+        }
+        builder.write(output);
+    }
+}
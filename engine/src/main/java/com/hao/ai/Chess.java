@@ -0,0 +1,17 @@
+package com.hao.ai;
+
+/**
+ * 棋子颜色（与chessArray中的值一致）
+ */
+
+public final class Chess {
+    //无棋
+    public static final int NONE = 0;
+    //白棋
+    public static final int WHITE = 1;
+    //黑棋
+    public static final int BLACK = 2;
+
+    private Chess() {
+    }
+}
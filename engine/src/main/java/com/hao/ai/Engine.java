@@ -0,0 +1,197 @@
+package com.hao.ai;
+
+import java.util.Random;
+
+/**
+ * 选点引擎
+ * 持有位棋盘以及评分、候选落点、置换表、搜索、杀棋求解，
+ * 按开局库、开局随机落子、连续冲四/活三、博弈树搜索的顺序选出最佳落点。
+ * 不涉及线程和界面，AI、基准测试等都通过它选点
+ */
+
+public class Engine {
+    //默认置换表大小（MB）
+    static final int DEFAULT_HASH_SIZE = 8;
+
+    //位棋盘（评分在位棋盘上计算）
+    private final Board board;
+    //增量评分
+    private final Evaluator evaluator;
+    //候选落点
+    private final MoveGenerator generator;
+    //置换表
+    private TranspositionTable table;
+    //博弈树搜索（多线程）
+    private final ParallelSearcher searcher;
+    //连续冲四/活三求解
+    private final ThreatSolver threatSolver;
+    //开局库（可以为空）
+    private OpeningBook openingBook;
+    //开局随机落子使用的随机数
+    private final Random random = new Random();
+    //最后一次搜索的结果（没有搜索时为null）
+    private SearchResult lastResult;
+
+    public Engine(int size) {
+        this(size, DEFAULT_HASH_SIZE);
+    }
+
+    /**
+     * 创建时指定置换表大小，避免先分配默认大小的置换表再由setHashSize替换
+     *
+     * @param size     棋盘大小
+     * @param hashSize 置换表大小（MB）
+     */
+    public Engine(int size, int hashSize) {
+        this.board = new Board(size);
+        this.evaluator = new Evaluator(board);
+        this.generator = new MoveGenerator(board, evaluator);
+        this.table = new TranspositionTable(hashSize);
+        this.searcher = new ParallelSearcher(board, evaluator, generator, table);
+        this.threatSolver = new ThreatSolver(board, evaluator, generator);
+    }
+
+    /**
+     * 为指定一方选择最佳落点（不落子）
+     * 不清除停止标识：stop之后的选点会立即结束，需要先调用resume
+     *
+     * @param chess 落子一方
+     * @return 落点，棋盘已满时返回null
+     */
+    public Point select(int chess) {
+        return select(chess, null);
+    }
+
+    /**
+     * 为指定一方选择最佳落点（不落子），博弈树搜索的结果已经由后台思考得到时使用。
+     * 开局库、连续冲四/活三求解照常进行，只有需要博弈树搜索时才使用pondered
+     *
+     * @param chess    落子一方
+     * @param pondered 后台思考在当前局面上的搜索结果，为null时正常搜索
+     * @return 落点，棋盘已满时返回null
+     */
+    public Point select(int chess, SearchResult pondered) {
+        int size = board.getSize();
+        lastResult = null;
+        int bookMove = openingBook == null ? -1 : openingBook.probe(board, chess);
+        if (bookMove >= 0) {
+            //开局库中有记录
+            return new Point(bookMove / size, bookMove % size);
+        }
+        if (board.getStoneCount() <= 1) {
+            //先手或者对方先手第一次落子时
+            return getStartPoint();
+        }
+        //先找连续冲四、连续活三的杀棋
+        int[] winLine = threatSolver.solveVcf(chess);
+        if (winLine == null) {
+            winLine = threatSolver.solveVct(chess);
+        }
+        if (winLine != null) {
+            return new Point(winLine[0] / size, winLine[0] % size);
+        }
+        //在时间预算内搜索最佳落点
+        lastResult = pondered != null ? pondered : searcher.iterate(chess);
+        if (lastResult == null) {
+            return null;
+        }
+        return new Point(lastResult.getX(), lastResult.getY());
+    }
+
+    //先手或者对方先手第一次落子时，在中间随机获取一个周围没有棋子的点落子
+    private Point getStartPoint() {
+        //该点是否可用标识
+        boolean isUse = true;
+        //在中间位置随机生成一个点
+        int size = board.getSize();
+        int range = Math.min(5, size);
+        int start = (size - range) / 2;
+        int x = random.nextInt(range) + start;
+        int y = random.nextInt(range) + start;
+        //确保周围不存在其他棋子
+        for (int i = Math.max(0, x - 1); i <= Math.min(size - 1, x + 1); i++)
+            for (int j = Math.max(0, y - 1); j <= Math.min(size - 1, y + 1); j++) {
+                if (!board.isEmpty(i, j)) {
+                    isUse = false;
+                }
+            }
+        if (isUse) {
+            return new Point(x, y);
+        } else {
+            return getStartPoint();
+        }
+    }
+
+    //开始新的一局：清空棋盘和置换表
+    public void clear() {
+        board.clear();
+        table.clear();
+    }
+
+    //设置开局随机落子的种子，使对局可以重现
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    //停止正在进行的搜索（可以在其他线程调用），之后的搜索也立即结束，直到调用resume
+    public void stop() {
+        searcher.stop();
+    }
+
+    //清除停止标识
+    public void resume() {
+        searcher.resume();
+    }
+
+    //关闭搜索线程
+    public void shutdown() {
+        searcher.shutdown();
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public ParallelSearcher getSearcher() {
+        return searcher;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+
+    //设置开局库，为空时不使用
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    //每步搜索的时间预算（毫秒）
+    public void setTimeLimit(long timeLimit) {
+        searcher.setTimeLimit(timeLimit);
+    }
+
+    //每步搜索的节点数预算
+    public void setNodeLimit(long nodeLimit) {
+        searcher.setNodeLimit(nodeLimit);
+    }
+
+    //连续冲四/活三求解的节点数预算
+    public void setThreatNodeLimit(int nodeLimit) {
+        threatSolver.setNodeLimit(nodeLimit);
+    }
+
+    //设置搜索线程数
+    public void setThreadCount(int threadCount) {
+        searcher.setThreadCount(threadCount);
+    }
+
+    //设置置换表大小（MB）
+    public void setHashSize(int megabytes) {
+        table = new TranspositionTable(megabytes);
+        searcher.setTable(table);
+    }
+}
@@ -0,0 +1,188 @@
+package com.hao.ai;
+
+import java.util.Arrays;
+
+/**
+ * 增量评分
+ * 记录每个空位在四个方向上对黑白双方的棋型和优先级评分，
+ * 落子或提子时只重新计算经过该点的四条线上受影响的空位，而不是整个棋盘
+ */
+
+public class Evaluator implements BoardListener {
+    /**
+     * 评分表（落子优先级评分）
+     * FIVE 至少能五子相连
+     * LIVE_X 表示X个子，下一步能形成活的X+1（活四为两个点都能五连）
+     * DEAD_X 表示X个子，下一步只能形成被堵住的X+1（冲四为只有一个点能五连）
+     * DEAD 表示无法五连
+     */
+    final static int FIVE = 10000;
+    final static int LIVE_FOUR = 4500;
+    final static int DEAD_FOUR = 2000;
+    final static int LIVE_THREE = 900;
+    final static int DEAD_THREE = 400;
+    final static int LIVE_TWO = 150;
+    final static int DEAD_TWO = 70;
+    final static int LIVE_ONE = 30;
+    final static int DEAD_ONE = 15;
+    final static int DEAD = 1;
+    //各棋型对应的评分，下标为PatternTable中的棋型
+    private final static int[] SHAPE_SCORES = {DEAD, DEAD_ONE, LIVE_ONE, DEAD_TWO, LIVE_TWO,
+            DEAD_THREE, LIVE_THREE, DEAD_FOUR, LIVE_FOUR, FIVE};
+    //已有棋子的位置
+    public final static int OCCUPIED = -1;
+    //落子影响的范围，即棋型窗口的半径
+    private final static int RADIUS = PatternTable.HALF;
+
+    //位棋盘
+    private final Board board;
+    //棋盘宽高
+    private final int size;
+    //每个空位每个方向的棋型 shapes[棋子颜色][方向][x * size + y]
+    private final byte[][][] shapes;
+    //每个空位四个方向的评分之和 totals[棋子颜色][x * size + y]
+    private final int[][] totals;
+    //所有空位的评分之和 sums[棋子颜色]，作为局面评估
+    private final int[] sums = new int[3];
+    //每种棋型的数量（按位置和方向计） shapeCounts[棋子颜色][棋型]
+    private final int[][] shapeCounts = new int[3][PatternTable.FIVE + 1];
+
+    public Evaluator(Board board) {
+        this.board = board;
+        this.size = board.getSize();
+        shapes = new byte[3][Board.DIRECTION_COUNT][size * size];
+        totals = new int[3][size * size];
+        for (byte[][] chessShapes : shapes) {
+            for (byte[] directionShapes : chessShapes) {
+                Arrays.fill(directionShapes, (byte) OCCUPIED);
+            }
+        }
+        board.addListener(this);
+        onReset();
+    }
+
+    /**
+     * 获取指定空位对指定颜色的优先级评分（四个方向之和）
+     *
+     * @param chess 棋子颜色
+     * @param x     数组下标
+     * @param y     数组下标
+     * @return 优先级评分，已有棋子的位置为0
+     */
+    public int getScore(int chess, int x, int y) {
+        return totals[chess][x * size + y];
+    }
+
+    /**
+     * 局面评估：所有空位上己方评分之和减去对方评分之和
+     *
+     * @param chess 轮到落子的一方
+     * @return 局面评分
+     */
+    public int evaluate(int chess) {
+        return sums[chess] - sums[Board.opposite(chess)];
+    }
+
+    //指定颜色在所有空位上某种棋型的数量
+    public int getShapeCount(int chess, int shape) {
+        return shapeCounts[chess][shape];
+    }
+
+    //指定位置落子后四个方向中最强的棋型
+    public int getBestShape(int chess, int x, int y) {
+        int best = OCCUPIED;
+        for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+            best = Math.max(best, shapes[chess][direction][x * size + y]);
+        }
+        return best;
+    }
+
+    @Override
+    public void onPlace(int x, int y, int chess) {
+        update(x, y);
+    }
+
+    @Override
+    public void onRemove(int x, int y, int chess) {
+        update(x, y);
+    }
+
+    //重新计算整个棋盘
+    @Override
+    public void onReset() {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+                    updateCell(i, j, direction);
+                }
+            }
+        }
+    }
+
+    //重新计算经过(x, y)的四条线上受影响的位置
+    private void update(int x, int y) {
+        for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+            int dx = Board.DX[direction];
+            int dy = Board.DY[direction];
+            for (int k = -RADIUS; k <= RADIUS; k++) {
+                int i = x + k * dx;
+                int j = y + k * dy;
+                if (i >= 0 && i < size && j >= 0 && j < size) {
+                    updateCell(i, j, direction);
+                }
+            }
+        }
+    }
+
+    //重新计算一个位置在一个方向上的棋型和评分
+    private void updateCell(int x, int y, int direction) {
+        int index = x * size + y;
+        boolean isEmpty = board.isEmpty(x, y);
+        for (int chess = 1; chess < 3; chess++) {
+            byte[] directionShapes = shapes[chess][direction];
+            int shape = isEmpty ? getShape(x, y, chess, direction) : OCCUPIED;
+            int oldShape = directionShapes[index];
+            int delta = scoreOf(shape) - scoreOf(oldShape);
+            totals[chess][index] += delta;
+            sums[chess] += delta;
+            if (oldShape != OCCUPIED) {
+                shapeCounts[chess][oldShape]--;
+            }
+            if (shape != OCCUPIED) {
+                shapeCounts[chess][shape]++;
+            }
+            directionShapes[index] = (byte) shape;
+        }
+    }
+
+    //棋型对应的评分
+    private static int scoreOf(int shape) {
+        return shape == OCCUPIED ? 0 : SHAPE_SCORES[shape];
+    }
+
+    /**
+     * 获取指定点chessArray[x][y]在指定方向上落子后的棋型
+     * 取该点前后各4格的己方棋子和被堵住的位置，查棋型表
+     *
+     * @param x         数组下标
+     * @param y         数组下标
+     * @param chess     棋子颜色
+     * @param direction 方向
+     * @return 棋型
+     */
+    public int getShape(int x, int y, int chess, int direction) {
+        //当前点在线上对应的bit
+        int pos = board.bitIndex(direction, x, y);
+        //整条线左移4位，使窗口起点不会小于0，棋盘以外视为被堵住
+        long own = (long) board.getLine(chess, direction, x, y) << PatternTable.HALF;
+        long blocked = (long) board.getBlocked(chess, direction, x, y) << PatternTable.HALF
+                | (1 << PatternTable.HALF) - 1;
+        //以当前点为中心的9格窗口
+        return PatternTable.getShape((int) (own >>> pos) & 0x1FF, (int) (blocked >>> pos) & 0x1FF);
+    }
+
+    //已经计算好的棋型，已有棋子的位置为OCCUPIED
+    public int getCachedShape(int x, int y, int chess, int direction) {
+        return shapes[chess][direction][x * size + y];
+    }
+}
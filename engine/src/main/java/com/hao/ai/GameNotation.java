@@ -0,0 +1,175 @@
+package com.hao.ai;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+/**
+ * 对局记录与文本记谱的转换
+ * 每局一行：棋盘宽高、先手颜色、各步落点、结果，以空格分隔，例如 "15 w h8 i9 h9 1-0"。
+ * 先手颜色 w 为白棋、b 为黑棋，可以省略，省略时按白棋先手（与界面、引擎一致）；
+ * 落点可以是字母列号加行号（a列在左，1行在最下面），也可以是Gomocup的"x,y"；
+ * 结果 1-0 为先手胜、0-1 为后手胜、1/2-1/2 为和棋、* 为未下完
+ * 用法：GameNotation export 记录文件 [xy] 输出到标准输出；GameNotation import 文本文件 记录文件 追加到记录文件
+ */
+
+public class GameNotation {
+    //记谱方式：字母列号加行号、x,y坐标
+    public static final int ALGEBRAIC = 0;
+    public static final int COORDINATE = 1;
+
+    /**
+     * 对局记录中的当前一局转为一行文本
+     *
+     * @param reader 对局记录
+     * @param style  记谱方式
+     * @return 文本
+     */
+    public static String format(GameRecordReader reader, int style) {
+        int size = reader.getSize();
+        StringBuilder builder = new StringBuilder();
+        builder.append(size).append(' ').append(reader.getFirstChess() == Chess.BLACK ? 'b' : 'w');
+        for (int i = 0; i < reader.getMoveCount(); i++) {
+            builder.append(' ');
+            appendMove(builder, reader.getMove(i), size, style);
+        }
+        builder.append(' ').append(formatResult(reader.getResult(), reader.getFirstChess()));
+        return builder.toString();
+    }
+
+    //一个落点的文本（字母列号加行号）
+    static String formatMove(int move, int size) {
+        StringBuilder builder = new StringBuilder(4);
+        appendMove(builder, move, size, ALGEBRAIC);
+        return builder.toString();
+    }
+
+    private static void appendMove(StringBuilder builder, int move, int size, int style) {
+        int x = move / size;
+        int y = move % size;
+        if (style == COORDINATE) {
+            builder.append(x).append(',').append(y);
+        } else {
+            builder.append((char) ('a' + x)).append(size - y);
+        }
+    }
+
+    private static String formatResult(int result, int firstChess) {
+        if (result == GameRecordReader.RESULT_DRAW) {
+            return "1/2-1/2";
+        } else if (result == GameRecordReader.RESULT_UNFINISHED) {
+            return "*";
+        }
+        return result == firstChess ? "1-0" : "0-1";
+    }
+
+    /**
+     * 解析一行文本并写入对局记录
+     *
+     * @param line   文本
+     * @param writer 对局记录
+     * @throws IOException 写入失败
+     */
+    public static void parse(String line, GameRecordWriter writer) throws IOException {
+        String[] tokens = line.trim().split("\\s+");
+        if (tokens.length < 2) {
+            throw new IllegalArgumentException("bad game: " + line);
+        }
+        int size = Integer.parseInt(tokens[0]);
+        //先手颜色（可以省略）
+        int first = 1;
+        int firstChess = Chess.WHITE;
+        if (tokens[1].equalsIgnoreCase("b")) {
+            firstChess = Chess.BLACK;
+            first++;
+        } else if (tokens[1].equalsIgnoreCase("w")) {
+            first++;
+        }
+        int count = tokens.length - 1 - first;
+        if (count < 0) {
+            throw new IllegalArgumentException("bad game: " + line);
+        }
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = parseMove(tokens[first + i], size);
+        }
+        String result = tokens[tokens.length - 1];
+        int winner;
+        switch (result) {
+            case "1-0":
+                winner = firstChess;
+                break;
+            case "0-1":
+                winner = Board.opposite(firstChess);
+                break;
+            case "1/2-1/2":
+                winner = GameRecordReader.RESULT_DRAW;
+                break;
+            case "*":
+                winner = GameRecordReader.RESULT_UNFINISHED;
+                break;
+            default:
+                throw new IllegalArgumentException("bad result: " + result);
+        }
+        writer.write(size, firstChess, moves, count, winner);
+    }
+
+    /**
+     * 解析一个落点
+     *
+     * @param token "h8"或者"7,7"
+     * @param size  棋盘宽高
+     * @return 落点（x * size + y）
+     */
+    public static int parseMove(String token, int size) {
+        int x;
+        int y;
+        int comma = token.indexOf(',');
+        if (comma >= 0) {
+            x = Integer.parseInt(token.substring(0, comma));
+            y = Integer.parseInt(token.substring(comma + 1));
+        } else {
+            x = Character.toLowerCase(token.charAt(0)) - 'a';
+            y = size - Integer.parseInt(token.substring(1));
+        }
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            throw new IllegalArgumentException("bad move: " + token);
+        }
+        return x * size + y;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("export")) {
+            int style = args.length > 2 && args[2].equals("xy") ? COORDINATE : ALGEBRAIC;
+            PrintStream out = System.out;
+            GameRecordReader reader = new GameRecordReader(new File(args[1]));
+            try {
+                while (reader.next()) {
+                    out.println(format(reader, style));
+                }
+            } finally {
+                reader.close();
+            }
+        } else if (args.length >= 3 && args[0].equals("import")) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(args[1]), "UTF-8"));
+            GameRecordWriter writer = new GameRecordWriter(new File(args[2]));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        parse(line, writer);
+                    }
+                }
+            } finally {
+                writer.close();
+                in.close();
+            }
+        } else {
+            System.err.println("usage: GameNotation export <records> [xy] | GameNotation import <text> <records>");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.hao.ai;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 对局记录文件的读取
+ * 文件格式（大端）：8字节文件头（标识、版本、保留），之后为依次追加的对局，每局：
+ * 1字节棋盘宽高、1字节先手颜色、2字节步数，之后每步一个落点，最后1字节结果。
+ * 棋盘不超过16路时每步1字节（x << 4 | y），否则2字节（x * size + y）。
+ * 文件按窗口分段内存映射，像游标一样逐局读取，读取过程中不创建对象，可以遍历任意大小的文件
+ */
+
+public class GameRecordReader implements Closeable {
+    //文件标识 "GFCR"
+    static final int MAGIC = 0x47464352;
+    //文件格式版本
+    static final int VERSION = 1;
+    //文件头长度
+    static final int HEADER_SIZE = 8;
+    //每局头部的长度
+    static final int GAME_HEADER_SIZE = 4;
+    //每局最多的步数
+    static final int MAX_MOVES = Zobrist.MAX_SIZE * Zobrist.MAX_SIZE;
+    /**
+     * 对局结果：白胜、黑胜、和棋（棋盘下满）、未下完
+     */
+    public static final int RESULT_WHITE = Chess.WHITE;
+    public static final int RESULT_BLACK = Chess.BLACK;
+    public static final int RESULT_DRAW = Chess.NONE;
+    public static final int RESULT_UNFINISHED = 3;
+    //映射窗口的大小，32位设备上也能映射
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    //文件长度
+    private final long length;
+    //当前映射的窗口以及窗口在文件中的起点
+    private MappedByteBuffer window;
+    private long windowStart;
+    //下一局在文件中的位置
+    private long position = HEADER_SIZE;
+    //当前一局在窗口中的位置，以及这一局的信息
+    private int offset;
+    private int size;
+    private int firstChess;
+    private int moveCount;
+    private int bytesPerMove;
+    private int result;
+    //已经读取的局数
+    private long gameCount;
+
+    /**
+     * @param file 对局记录文件
+     * @throws IOException 读取失败或格式不正确
+     */
+    public GameRecordReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.length = channel.size();
+        if (length < HEADER_SIZE) {
+            close();
+            throw new IOException("not a game record file");
+        }
+        map(0);
+        if (window.getInt(0) != MAGIC || window.getShort(4) != VERSION) {
+            close();
+            throw new IOException("not a game record file");
+        }
+    }
+
+    //棋盘宽高对应的每步字节数
+    static int bytesPerMove(int size) {
+        return size <= 16 ? 1 : 2;
+    }
+
+    //从start开始映射一个窗口
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, length - start));
+    }
+
+    //确保[start, start + count)在当前窗口内
+    private void ensure(long start, int count) throws IOException {
+        if (start < windowStart || start + count > windowStart + window.capacity()) {
+            map(start);
+        }
+    }
+
+    /**
+     * 读取下一局
+     *
+     * @return 是否还有对局，文件末尾不完整的一局（写入中断）被忽略
+     * @throws IOException 读取失败或格式不正确
+     */
+    public boolean next() throws IOException {
+        if (position + GAME_HEADER_SIZE > length) {
+            return false;
+        }
+        ensure(position, GAME_HEADER_SIZE);
+        int headerOffset = (int) (position - windowStart);
+        int gameSize = window.get(headerOffset) & 0xFF;
+        int gameMoves = window.getShort(headerOffset + 2) & 0xFFFF;
+        if (gameSize < 5 || gameSize > Zobrist.MAX_SIZE || gameMoves > gameSize * gameSize) {
+            throw new IOException("corrupt game record at " + position);
+        }
+        int recordLength = GAME_HEADER_SIZE + gameMoves * bytesPerMove(gameSize) + 1;
+        if (position + recordLength > length) {
+            return false;
+        }
+        ensure(position, recordLength);
+        offset = (int) (position - windowStart);
+        size = gameSize;
+        firstChess = window.get(offset + 1);
+        moveCount = gameMoves;
+        bytesPerMove = bytesPerMove(gameSize);
+        result = window.get(offset + recordLength - 1);
+        position += recordLength;
+        gameCount++;
+        return true;
+    }
+
+    //当前一局的棋盘宽高
+    public int getSize() {
+        return size;
+    }
+
+    //当前一局的先手颜色
+    public int getFirstChess() {
+        return firstChess;
+    }
+
+    //当前一局的步数
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    //当前一局第i步的落点（x * size + y），双方交替落子
+    public int getMove(int i) {
+        int index = offset + GAME_HEADER_SIZE + i * bytesPerMove;
+        if (bytesPerMove == 1) {
+            int move = window.get(index) & 0xFF;
+            return (move >> 4) * size + (move & 0xF);
+        }
+        return window.getShort(index) & 0xFFFF;
+    }
+
+    //当前一局第i步的棋子颜色
+    public int getMoveChess(int i) {
+        return (i & 1) == 0 ? firstChess : Board.opposite(firstChess);
+    }
+
+    //当前一局的结果
+    public int getResult() {
+        return result;
+    }
+
+    //已经读取的局数
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    //已经读取的部分（文件头和完整的对局）的长度
+    long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
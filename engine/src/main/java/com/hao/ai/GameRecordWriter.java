@@ -0,0 +1,113 @@
+package com.hao.ai;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 对局记录文件的写入（格式见GameRecordReader）
+ * 以追加方式打开文件，对局先写入缓冲区，缓冲区满、flush或close时才通过FileChannel一次写出。
+ * 打开时检查文件末尾，上次写入中断留下的不完整的一局被截掉，新的对局接在最后一个完整的对局之后
+ */
+
+public class GameRecordWriter implements Closeable {
+    //缓冲区大小
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileOutputStream out;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * 打开对局记录文件，不存在、为空或者文件头不完整时写入文件头，末尾不完整的一局被截掉
+     *
+     * @param file 对局记录文件
+     * @throws IOException 打开失败或者不是对局记录文件
+     */
+    public GameRecordWriter(File file) throws IOException {
+        long length = file.length();
+        long completeLength = length < GameRecordReader.HEADER_SIZE ? 0 : completeLength(file);
+        out = new FileOutputStream(file, true);
+        channel = out.getChannel();
+        try {
+            if (completeLength < length) {
+                channel.truncate(completeLength);
+            }
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        if (completeLength == 0) {
+            buffer.putInt(GameRecordReader.MAGIC);
+            buffer.putShort((short) GameRecordReader.VERSION);
+            buffer.putShort((short) 0);
+        }
+    }
+
+    //文件头和所有完整的对局的长度
+    private static long completeLength(File file) throws IOException {
+        GameRecordReader reader = new GameRecordReader(file);
+        try {
+            while (reader.next()) {
+                //跳过
+            }
+            return reader.getPosition();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 写入一局
+     *
+     * @param size       棋盘宽高
+     * @param firstChess 先手颜色
+     * @param moves      落点（x * size + y），双方交替
+     * @param count      步数
+     * @param result     结果（GameRecordReader.RESULT_*）
+     * @throws IOException 写入失败
+     */
+    public void write(int size, int firstChess, int[] moves, int count, int result) throws IOException {
+        if (size < 5 || size > Zobrist.MAX_SIZE || count > size * size) {
+            throw new IllegalArgumentException("unsupported game: size " + size + ", " + count + " moves");
+        }
+        int bytesPerMove = GameRecordReader.bytesPerMove(size);
+        if (buffer.remaining() < GameRecordReader.GAME_HEADER_SIZE + count * bytesPerMove + 1) {
+            flush();
+        }
+        buffer.put((byte) size);
+        buffer.put((byte) firstChess);
+        buffer.putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            int x = moves[i] / size;
+            int y = moves[i] % size;
+            if (bytesPerMove == 1) {
+                buffer.put((byte) (x << 4 | y));
+            } else {
+                buffer.putShort((short) moves[i]);
+            }
+        }
+        buffer.put((byte) result);
+    }
+
+    //写出缓冲区中的对局
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.hao.ai;
+
+/**
+ * 候选落点生成
+ * 记录每个位置周围（距离2以内，含斜向）的棋子数，用bitset保存所有周围有棋子的空位，
+ * 落子、提子时只修改周围5x5的计数，提子正好撤销落子的修改。
+ * 对方有冲四或活三时进入强制应对模式，只返回挡棋和反冲四的落点
+ */
+
+public class MoveGenerator implements BoardListener {
+    //候选落点与已有棋子的最大距离
+    public static final int DISTANCE = 2;
+
+    //位棋盘
+    private final Board board;
+    //增量评分（提供每个空位的棋型）
+    private final Evaluator evaluator;
+    //棋盘宽高
+    private final int size;
+    //每个位置周围的棋子数
+    private final int[] neighborCounts;
+    //候选落点bitset，第x * size + y位表示(x, y)
+    private final long[] candidates;
+
+    public MoveGenerator(Board board, Evaluator evaluator) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.size = board.getSize();
+        neighborCounts = new int[size * size];
+        candidates = new long[(size * size + 63) / 64];
+        board.addListener(this);
+        onReset();
+    }
+
+    @Override
+    public void onPlace(int x, int y, int chess) {
+        updateNeighbors(x, y, 1);
+    }
+
+    @Override
+    public void onRemove(int x, int y, int chess) {
+        updateNeighbors(x, y, -1);
+    }
+
+    //重新计算所有位置
+    @Override
+    public void onReset() {
+        for (int i = 0; i < neighborCounts.length; i++) {
+            neighborCounts[i] = 0;
+        }
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (!board.isEmpty(i, j)) {
+                    updateNeighbors(i, j, 1);
+                }
+            }
+        }
+    }
+
+    //修改(x, y)周围的棋子数，并更新候选落点
+    private void updateNeighbors(int x, int y, int delta) {
+        for (int i = Math.max(0, x - DISTANCE); i <= Math.min(size - 1, x + DISTANCE); i++) {
+            for (int j = Math.max(0, y - DISTANCE); j <= Math.min(size - 1, y + DISTANCE); j++) {
+                int index = i * size + j;
+                neighborCounts[index] += delta;
+                if (neighborCounts[index] > 0 && board.isEmpty(i, j)) {
+                    setBit(index);
+                } else {
+                    clearBit(index);
+                }
+            }
+        }
+    }
+
+    private void setBit(int index) {
+        candidates[index >>> 6] |= 1L << index;
+    }
+
+    private void clearBit(int index) {
+        candidates[index >>> 6] &= ~(1L << index);
+    }
+
+    public boolean isCandidate(int x, int y) {
+        int index = x * size + y;
+        return (candidates[index >>> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * 获取所有候选落点
+     *
+     * @param list 保存落点（x * size + y）
+     * @return 候选落点数
+     */
+    public int getCandidates(int[] list) {
+        int count = 0;
+        for (int word = 0; word < candidates.length; word++) {
+            long bits = candidates[word];
+            while (bits != 0) {
+                list[count++] = word << 6 | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取落子后最强棋型在[minShape, maxShape]之间的候选落点，追加到list中（不重复）
+     *
+     * @param chess    棋子颜色
+     * @param minShape 最弱棋型
+     * @param maxShape 最强棋型
+     * @param list     保存落点
+     * @param count    list中已有的落点数
+     * @return 追加后的落点数
+     */
+    public int collect(int chess, int minShape, int maxShape, int[] list, int count) {
+        if (!hasShape(chess, minShape, maxShape)) {
+            return count;
+        }
+        int start = count;
+        for (int word = 0; word < candidates.length; word++) {
+            long bits = candidates[word];
+            while (bits != 0) {
+                int index = word << 6 | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int shape = evaluator.getBestShape(chess, index / size, index % size);
+                if (shape >= minShape && shape <= maxShape && !contains(list, start, index)) {
+                    list[count++] = index;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 生成候选落点，对方有威胁时只返回必须应对的落点：
+     * 能五连时只返回五连的落点；对方能五连时只返回挡的位置；
+     * 对方有活三（能形成活四）时返回挡的位置以及己方冲四的落点；否则返回全部候选落点
+     *
+     * @param chess 落子一方
+     * @param list  保存落点（x * size + y）
+     * @return 落点数
+     */
+    public int generate(int chess, int[] list) {
+        int opponent = Board.opposite(chess);
+        if (evaluator.getShapeCount(chess, PatternTable.FIVE) > 0) {
+            return collect(chess, PatternTable.FIVE, PatternTable.FIVE, list, 0);
+        }
+        if (evaluator.getShapeCount(opponent, PatternTable.FIVE) > 0) {
+            return collect(opponent, PatternTable.FIVE, PatternTable.FIVE, list, 0);
+        }
+        if (evaluator.getShapeCount(opponent, PatternTable.LIVE_FOUR) > 0) {
+            int count = collect(opponent, PatternTable.DEAD_FOUR, PatternTable.LIVE_FOUR, list, 0);
+            return collect(chess, PatternTable.DEAD_FOUR, PatternTable.LIVE_FOUR, list, count);
+        }
+        return getCandidates(list);
+    }
+
+    //是否有棋型在[minShape, maxShape]之间的空位
+    private boolean hasShape(int chess, int minShape, int maxShape) {
+        for (int shape = minShape; shape <= maxShape; shape++) {
+            if (evaluator.getShapeCount(chess, shape) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //list的前count个中是否已有move
+    private static boolean contains(int[] list, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,127 @@
+package com.hao.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 开局库
+ * 文件格式（大端）：16字节文件头（标识、版本、棋盘宽高、记录数），之后为按局面哈希排序的记录，
+ * 每条记录12字节：标准对称变换下的局面哈希（含轮到落子一方）、变换后的落点、权重。
+ * 同一局面的多条记录按权重从高到低排列。
+ * 文件通过内存映射读取，查找时二分查找，不载入堆内存，也不创建对象
+ */
+
+public class OpeningBook {
+    //文件标识 "GFOB"
+    static final int MAGIC = 0x47464F42;
+    //文件格式版本
+    static final int VERSION = 1;
+    //文件头长度
+    static final int HEADER_SIZE = 16;
+    //每条记录的长度
+    static final int ENTRY_SIZE = 12;
+
+    //开局库数据
+    private final ByteBuffer buffer;
+    //棋盘宽高
+    private final int size;
+    //记录数
+    private final int count;
+
+    /**
+     * @param buffer 开局库数据（通常为内存映射）
+     * @throws IOException 数据格式不正确
+     */
+    public OpeningBook(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not an opening book");
+        }
+        size = buffer.getInt(8);
+        count = buffer.getInt(12);
+        if ((long) HEADER_SIZE + (long) count * ENTRY_SIZE > buffer.capacity()) {
+            throw new IOException("truncated opening book");
+        }
+    }
+
+    /**
+     * 以内存映射方式打开开局库文件
+     *
+     * @param file 开局库文件
+     * @return 开局库
+     * @throws IOException 读取失败或格式不正确
+     */
+    public static OpeningBook open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            //关闭文件后映射仍然有效
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * 查找开局库
+     *
+     * @param board 当前局面
+     * @param chess 落子一方
+     * @return 落点（x * size + y），没有记录时返回-1
+     */
+    public int probe(Board board, int chess) {
+        if (board.getSize() != size) {
+            return -1;
+        }
+        int symmetry = board.getCanonicalSymmetry();
+        long key = board.getHash(symmetry) ^ Zobrist.side(chess);
+        int index = lowerBound(key);
+        if (index == count || getKey(index) != key) {
+            return -1;
+        }
+        int move = board.inverseTransform(symmetry, getMove(index));
+        //哈希冲突时落点可能已经有子
+        if (!board.isEmpty(move / size, move % size)) {
+            return -1;
+        }
+        return move;
+    }
+
+    //第一条哈希不小于key的记录
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getKey(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    long getKey(int index) {
+        return buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+    }
+
+    int getMove(int index) {
+        return buffer.getShort(HEADER_SIZE + index * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    int getWeight(int index) {
+        return buffer.getShort(HEADER_SIZE + index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,180 @@
+package com.hao.ai;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 多线程搜索报告
+ * 用固定种子自我对弈生成一组局面，对每种线程数分别测量：
+ * 固定时间内完成的平均深度和每秒节点数；以及达到第一种线程数在同样时间内完成的深度所用的时间，
+ * 与第一种线程数相比得到加速比。每个局面搜索前清空置换表
+ * 用法：ParallelReport [--threads 1,2,4] [--time 每个局面的毫秒数] [--positions 局面数]
+ * [--plies 每个局面的步数] [--seed 种子]
+ */
+
+public class ParallelReport {
+    //棋盘宽高
+    private static final int SIZE = 15;
+    //置换表大小（MB），所有线程共享
+    private static final int HASH_SIZE = 16;
+    //开局随机落子的步数
+    private static final int OPENING_PLIES = 3;
+    //生成局面时每步的节点数
+    private static final long SETUP_NODE_LIMIT = 2000;
+
+    //每个局面的落点，双方交替、白棋先手
+    private final int[][] positions;
+    //每个局面固定时间的搜索时间（毫秒）
+    private final long timeLimit;
+
+    public ParallelReport(int[][] positions, long timeLimit) {
+        this.positions = positions;
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * 用固定种子的自我对弈生成局面，已经五连的局面被跳过
+     *
+     * @param count 局面数
+     * @param plies 每个局面的步数
+     * @param seed  种子
+     * @return 每个局面的落点
+     */
+    static int[][] createPositions(int count, int plies, long seed) {
+        Engine engine = new Engine(SIZE);
+        engine.setThreadCount(1);
+        engine.setTimeLimit(0);
+        engine.setNodeLimit(SETUP_NODE_LIMIT);
+        engine.setSeed(seed);
+        Board board = engine.getBoard();
+        int[][] positions = new int[count][];
+        int found = 0;
+        for (int index = 0; found < count; index++) {
+            Random random = new Random(seed * 31 + index);
+            engine.clear();
+            int[] moves = new int[plies];
+            int chess = Chess.WHITE;
+            boolean isOver = false;
+            for (int ply = 0; ply < plies && !isOver; ply++) {
+                int move;
+                if (ply < OPENING_PLIES) {
+                    //中间7x7内随机落子
+                    do {
+                        move = (SIZE / 2 - 3 + random.nextInt(7)) * SIZE + SIZE / 2 - 3 + random.nextInt(7);
+                    } while (!board.isEmpty(move / SIZE, move % SIZE));
+                } else {
+                    Point point = engine.select(chess);
+                    move = point.getX() * SIZE + point.getY();
+                }
+                board.place(move / SIZE, move % SIZE, chess);
+                isOver = board.isFive(move / SIZE, move % SIZE, chess);
+                moves[ply] = move;
+                chess = Board.opposite(chess);
+            }
+            if (!isOver) {
+                positions[found++] = moves;
+            }
+        }
+        engine.shutdown();
+        return positions;
+    }
+
+    /**
+     * 测量一种线程数
+     *
+     * @param threads      线程数
+     * @param targetDepths 每个局面测量用时的目标深度，为null时不测量
+     * @return {每个局面完成的深度..., 总节点数, 总时间, 达到目标深度的总时间}
+     */
+    long[] measure(int threads, int[] targetDepths) {
+        Engine engine = new Engine(SIZE, HASH_SIZE);
+        engine.setThreadCount(threads);
+        ParallelSearcher searcher = engine.getSearcher();
+        int count = positions.length;
+        long[] results = new long[count + 3];
+        for (int i = 0; i < count; i++) {
+            int chess = load(engine, positions[i]);
+            //固定时间
+            searcher.setTimeLimit(timeLimit);
+            searcher.setMaxDepth(Searcher.DEFAULT_MAX_DEPTH);
+            SearchResult result = searcher.search(chess);
+            results[i] = result.getDepth();
+            results[count] += result.getNodes();
+            results[count + 1] += result.getTime();
+            //达到目标深度
+            if (targetDepths != null && targetDepths[i] > 0) {
+                load(engine, positions[i]);
+                searcher.setTimeLimit(0);
+                searcher.setMaxDepth(targetDepths[i]);
+                results[count + 2] += searcher.search(chess).getTime();
+            }
+        }
+        engine.shutdown();
+        return results;
+    }
+
+    //清空棋盘和置换表后摆出局面，返回轮到落子的一方
+    private static int load(Engine engine, int[] moves) {
+        engine.clear();
+        int chess = Chess.WHITE;
+        for (int move : moves) {
+            engine.getBoard().place(move / SIZE, move % SIZE, chess);
+            chess = Board.opposite(chess);
+        }
+        return chess;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                System.err.println("usage: ParallelReport [--threads 1,2,4] [--time ms] [--positions n] "
+                        + "[--plies n] [--seed n]");
+                System.exit(1);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        String[] threadCounts = get(options, "threads", "1,2,4").split(",");
+        long timeLimit = Long.parseLong(get(options, "time", "1000"));
+        int count = Integer.parseInt(get(options, "positions", "8"));
+        int plies = Integer.parseInt(get(options, "plies", "12"));
+        long seed = Long.parseLong(get(options, "seed", "1"));
+        ParallelReport report = new ParallelReport(createPositions(count, plies, seed), timeLimit);
+        System.out.println(String.format("%d positions, %d ms each, %d cpus", count, timeLimit,
+                Runtime.getRuntime().availableProcessors()));
+        System.out.println("threads   depth    nodes/s   time-to-depth  speedup");
+        int[] targetDepths = null;
+        long baseTime = 0;
+        for (String value : threadCounts) {
+            int threads = Integer.parseInt(value.trim());
+            long[] results;
+            if (targetDepths == null) {
+                //第一种线程数：目标深度为它在固定时间内完成的深度
+                results = report.measure(threads, null);
+                targetDepths = new int[count];
+                for (int i = 0; i < count; i++) {
+                    targetDepths[i] = (int) results[i];
+                }
+                results = report.measure(threads, targetDepths);
+                baseTime = results[count + 2];
+            } else {
+                results = report.measure(threads, targetDepths);
+            }
+            long depths = 0;
+            for (int i = 0; i < count; i++) {
+                depths += results[i];
+            }
+            long nodes = results[count];
+            long time = Math.max(1, results[count + 1]);
+            long timeToDepth = Math.max(1, results[count + 2]);
+            System.out.println(String.format("%7d  %6.2f  %9.0f  %11d ms  %7.2f", threads,
+                    (double) depths / count, nodes * 1000.0 / time, timeToDepth,
+                    (double) baseTime / timeToDepth));
+        }
+    }
+
+    private static String get(Map<String, String> options, String key, String defaultValue) {
+        return options.containsKey(key) ? options.get(key) : defaultValue;
+    }
+}
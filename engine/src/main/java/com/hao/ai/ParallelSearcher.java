@@ -0,0 +1,202 @@
+package com.hao.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 多线程搜索（Lazy SMP）
+ * 主搜索在调用线程上进行，辅助线程各自持有一份位棋盘和评分，从错开的深度开始搜索同一个局面，
+ * 彼此之间只通过共享的置换表交换结果。主搜索结束后停止所有辅助线程，
+ * 取完成深度最大的结果，节点数为所有线程之和
+ */
+
+public class ParallelSearcher {
+    //根局面
+    private final Board board;
+    //共享的置换表
+    private TranspositionTable table;
+    //主搜索
+    private final Searcher mainSearcher;
+    //辅助线程的位棋盘和搜索
+    private Board[] helperBoards = new Board[0];
+    private Searcher[] helpers = new Searcher[0];
+    //辅助线程池
+    private ExecutorService executor;
+    //时间限制（毫秒），辅助线程使用同样的限制作为保底
+    private long timeLimit = 1000;
+    //最大迭代深度
+    private int maxDepth = Searcher.DEFAULT_MAX_DEPTH;
+
+    public ParallelSearcher(Board board, Evaluator evaluator, MoveGenerator generator,
+                            TranspositionTable table) {
+        this.board = board;
+        this.table = table;
+        this.mainSearcher = new Searcher(board, evaluator, generator, table);
+    }
+
+    /**
+     * 设置搜索线程数（包括调用线程）
+     *
+     * @param threadCount 线程数，至少为1
+     */
+    public void setThreadCount(int threadCount) {
+        int helperCount = Math.max(1, threadCount) - 1;
+        if (helperCount == helpers.length) {
+            return;
+        }
+        shutdown();
+        helperBoards = new Board[helperCount];
+        helpers = new Searcher[helperCount];
+        for (int i = 0; i < helperCount; i++) {
+            Board helperBoard = new Board(board.getSize());
+            Evaluator helperEvaluator = new Evaluator(helperBoard);
+            helperBoards[i] = helperBoard;
+            helpers[i] = new Searcher(helperBoard, helperEvaluator,
+                    new MoveGenerator(helperBoard, helperEvaluator), table);
+            helpers[i].setHelperId(i + 1);
+            helpers[i].setTimeLimit(timeLimit);
+            helpers[i].setMaxDepth(maxDepth);
+        }
+        if (helperCount > 0) {
+            executor = Executors.newFixedThreadPool(helperCount, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ai-helper");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * 为指定一方搜索最佳落点
+     *
+     * @param chess 落子一方
+     * @return 搜索结果，棋盘已满时返回null
+     */
+    public SearchResult search(int chess) {
+        resume();
+        return iterate(chess);
+    }
+
+    /**
+     * 搜索但不清除停止标识：先调用resume，再检查是否已被取消，最后调用此方法，
+     * 可以保证在其他线程调用的stop不会因为搜索开始时清除标识而丢失
+     *
+     * @param chess 落子一方
+     * @return 搜索结果，棋盘已满时返回null
+     */
+    public SearchResult iterate(final int chess) {
+        if (helpers.length == 0) {
+            return mainSearcher.iterate(chess);
+        }
+        //同步辅助线程的棋盘后再启动
+        List<Future<SearchResult>> futures = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            helperBoards[i].sync(board);
+            final Searcher helper = helpers[i];
+            helper.resume();
+            futures.add(executor.submit(new Callable<SearchResult>() {
+                @Override
+                public SearchResult call() {
+                    return helper.iterate(chess);
+                }
+            }));
+        }
+        SearchResult best = mainSearcher.iterate(chess);
+        for (Searcher helper : helpers) {
+            helper.stop();
+        }
+        //取完成深度最大的结果（深度相同时以主搜索为准），统计总节点数
+        long nodes = best == null ? 0 : best.getNodes();
+        for (Future<SearchResult> future : futures) {
+            SearchResult result = getQuietly(future);
+            if (result == null) {
+                continue;
+            }
+            nodes += result.getNodes();
+            if (best != null && result.getDepth() > best.getDepth()) {
+                best = result;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        return new SearchResult(best.getX(), best.getY(), best.getScore(), best.getDepth(),
+                nodes, best.getTime());
+    }
+
+    private static SearchResult getQuietly(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    //停止正在进行的搜索（可以在其他线程调用）
+    public void stop() {
+        mainSearcher.stop();
+        for (Searcher helper : helpers) {
+            helper.stop();
+        }
+    }
+
+    //清除停止标识
+    public void resume() {
+        mainSearcher.resume();
+    }
+
+    //关闭辅助线程池
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+        mainSearcher.setTimeLimit(timeLimit);
+        for (Searcher helper : helpers) {
+            helper.setTimeLimit(timeLimit);
+        }
+    }
+
+    //最大迭代深度，主搜索完成这个深度后停止
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        mainSearcher.setMaxDepth(maxDepth);
+        for (Searcher helper : helpers) {
+            helper.setMaxDepth(maxDepth);
+        }
+    }
+
+    //节点数限制只作用于主搜索
+    public void setNodeLimit(long nodeLimit) {
+        mainSearcher.setNodeLimit(nodeLimit);
+    }
+
+    public void setTable(TranspositionTable table) {
+        this.table = table;
+        mainSearcher.setTable(table);
+        for (Searcher helper : helpers) {
+            helper.setTable(table);
+        }
+    }
+
+    public int getThreadCount() {
+        return helpers.length + 1;
+    }
+}
@@ -0,0 +1,153 @@
+package com.hao.ai;
+
+/**
+ * 棋型表
+ * 以某个位置为中心，取一个方向上前后各4个位置共9格，把其余8格中的己方棋子和被堵住的位置
+ * 各压缩成8个bit拼成索引，预先算好该点落子后在这个方向上形成的棋型，评分时只需查一次表。
+ * 棋型按能否继续成五判断，能识别X.XXX、XX.XX、.X.XX.这类跳子棋型
+ */
+
+public final class PatternTable {
+    /**
+     * 棋型（数值越大越强）
+     * DEAD 无论怎样都无法在该方向上五连
+     * DEAD_X / LIVE_X 同评分表含义，X个子且能成为冲四/活四
+     * FIVE 五连
+     */
+    public static final int DEAD = 0;
+    public static final int DEAD_ONE = 1;
+    public static final int LIVE_ONE = 2;
+    public static final int DEAD_TWO = 3;
+    public static final int LIVE_TWO = 4;
+    public static final int DEAD_THREE = 5;
+    public static final int LIVE_THREE = 6;
+    public static final int DEAD_FOUR = 7;
+    public static final int LIVE_FOUR = 8;
+    public static final int FIVE = 9;
+    //窗口中心到两端的距离
+    public static final int HALF = 4;
+    //窗口长度
+    private static final int WINDOW = HALF * 2 + 1;
+
+    //格子状态
+    private static final int EMPTY = 0;
+    private static final int OWN = 1;
+    private static final int BLOCKED = 2;
+
+    //棋型表 shapes[own | blocked << 8]
+    private static final byte[] shapes = new byte[1 << 16];
+
+    static {
+        for (int i = 0; i < shapes.length; i++) {
+            shapes[i] = -1;
+        }
+        for (int i = 0; i < shapes.length; i++) {
+            classify(i);
+        }
+    }
+
+    private PatternTable() {
+    }
+
+    /**
+     * 根据9格窗口获取棋型
+     *
+     * @param own     窗口中的己方棋子，bit 4为中心
+     * @param blocked 窗口中被堵住的位置，bit 4为中心
+     * @return 中心落子后的棋型
+     */
+    public static int getShape(int own, int blocked) {
+        return shapes[pack(own) | pack(blocked) << 8];
+    }
+
+    //去掉中心bit，9个bit压缩为8个bit
+    private static int pack(int window) {
+        return (window & 0xF) | (window >>> 5 & 0xF) << 4;
+    }
+
+    //计算并记录一个索引对应的棋型
+    private static int classify(int index) {
+        if (shapes[index] >= 0) {
+            return shapes[index];
+        }
+        int[] cells = new int[WINDOW];
+        for (int i = 0; i < WINDOW - 1; i++) {
+            int k = i < HALF ? i : i + 1;
+            if ((index >>> i & 1) != 0) {
+                cells[k] = OWN;
+            } else if ((index >>> (i + 8) & 1) != 0) {
+                cells[k] = BLOCKED;
+            }
+        }
+        cells[HALF] = OWN;
+        int shape = classify(cells, index);
+        shapes[index] = (byte) shape;
+        return shape;
+    }
+
+    private static int classify(int[] cells, int index) {
+        //包含中心的五格中全是己方棋子
+        for (int start = 0; start <= HALF; start++) {
+            if (countInWindow(cells, start, OWN) == 5) {
+                return FIVE;
+            }
+        }
+        //再下一子就能五连的位置数，两个以上为活四，一个为冲四
+        int completions = 0;
+        for (int k = 0; k < WINDOW; k++) {
+            if (cells[k] == EMPTY && completesFive(cells, k)) {
+                completions++;
+            }
+        }
+        if (completions >= 2) {
+            return LIVE_FOUR;
+        } else if (completions == 1) {
+            return DEAD_FOUR;
+        }
+        //其余棋型：看再下一子后能形成的最强棋型
+        int best = -1;
+        for (int k = 0; k < WINDOW; k++) {
+            if (cells[k] == EMPTY) {
+                int next = index | 1 << (k < HALF ? k : k - 1);
+                best = Math.max(best, classify(next));
+            }
+        }
+        switch (best) {
+            case LIVE_FOUR:
+                return LIVE_THREE;
+            case DEAD_FOUR:
+                return DEAD_THREE;
+            case LIVE_THREE:
+                return LIVE_TWO;
+            case DEAD_THREE:
+                return DEAD_TWO;
+            case LIVE_TWO:
+                return LIVE_ONE;
+            case DEAD_TWO:
+                return DEAD_ONE;
+            default:
+                return DEAD;
+        }
+    }
+
+    //在k处下子后，包含中心和k的五格是否全是己方棋子
+    private static boolean completesFive(int[] cells, int k) {
+        for (int start = Math.max(0, k - 4); start <= Math.min(HALF, k); start++) {
+            if (countInWindow(cells, start, OWN) == 4 && countInWindow(cells, start, BLOCKED) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //从start开始的五格中指定状态的格子数
+    private static int countInWindow(int[] cells, int start, int state) {
+        int count = 0;
+        for (int i = start; i < start + 5; i++) {
+            if (cells[i] == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,219 @@
+package com.hao.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+/**
+ * Piskvork/Gomocup协议的命令行入口
+ * 从标准输入读取命令（START、RESTART、BEGIN、TURN、BOARD、INFO、ABOUT、END），向标准输出回复。
+ * 整个对局使用同一个Engine：对方落子、己方落子都增量地落在同一个位棋盘上，置换表在回合之间保留。
+ * 每步的时间预算由timeout_turn和time_left计算，置换表大小不超过max_memory的一半
+ */
+
+public class Piskvork {
+    //己方、对方棋子（引擎中不区分黑白，固定使用白棋表示己方）
+    private static final int OWN = Chess.WHITE;
+    private static final int OPPONENT = Chess.BLACK;
+    //默认每步时间（毫秒）
+    private static final long DEFAULT_TURN_TIME = 5000;
+    //预留的时间（毫秒），用于通信以及搜索结束前的最后一次检查
+    private static final long TIME_MARGIN = 100;
+    //估计对局剩余的步数，用于分配整局的剩余时间
+    private static final int MOVES_TO_GO = 25;
+    //默认置换表大小（MB）
+    private static final int DEFAULT_HASH_SIZE = 64;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    //引擎，START时创建，棋盘大小不变时一直复用
+    private Engine engine;
+    //当前置换表大小（MB）
+    private int hashSize = DEFAULT_HASH_SIZE;
+    //每步时间限制（毫秒），0表示尽快落子
+    private long turnTime = DEFAULT_TURN_TIME;
+    //整局剩余时间（毫秒），-1表示不限制
+    private long timeLeft = -1;
+
+    public Piskvork(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    //处理命令直到END或者输入结束
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            String command = (space < 0 ? line : line.substring(0, space)).toUpperCase();
+            String argument = space < 0 ? "" : line.substring(space + 1).trim();
+            if (command.equals("END")) {
+                break;
+            }
+            try {
+                handle(command, argument);
+            } catch (RuntimeException e) {
+                out.println("ERROR " + e.getMessage());
+            }
+            out.flush();
+        }
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    private void handle(String command, String argument) throws IOException {
+        switch (command) {
+            case "START":
+                start(Integer.parseInt(argument));
+                break;
+            case "RESTART":
+                checkStarted();
+                engine.clear();
+                out.println("OK");
+                break;
+            case "BEGIN":
+                checkStarted();
+                play();
+                break;
+            case "TURN":
+                checkStarted();
+                int[] move = parseMove(argument);
+                place(move[0], move[1], OPPONENT);
+                play();
+                break;
+            case "BOARD":
+                checkStarted();
+                readBoard();
+                play();
+                break;
+            case "INFO":
+                info(argument);
+                break;
+            case "ABOUT":
+                out.println("name=\"GameFiveChess\", version=\"1.0\", author=\"ZhangHao\", country=\"China\"");
+                break;
+            default:
+                out.println("UNKNOWN " + command);
+                break;
+        }
+    }
+
+    //开始新的一局，棋盘大小相同时复用引擎
+    private void start(int size) {
+        if (size < 5 || size > Zobrist.MAX_SIZE) {
+            out.println("ERROR unsupported size " + size);
+            return;
+        }
+        if (engine == null || engine.getBoard().getSize() != size) {
+            if (engine != null) {
+                engine.shutdown();
+            }
+            engine = new Engine(size, hashSize);
+            engine.setThreadCount(Runtime.getRuntime().availableProcessors());
+        } else {
+            engine.clear();
+        }
+        out.println("OK");
+    }
+
+    private void checkStarted() {
+        if (engine == null) {
+            throw new IllegalStateException("START first");
+        }
+    }
+
+    //BOARD命令：读取到DONE为止，与当前棋盘不同的位置增量更新
+    private void readBoard() throws IOException {
+        int size = engine.getBoard().getSize();
+        int[][] chessArray = new int[size][size];
+        String line;
+        while ((line = in.readLine()) != null && !line.trim().equalsIgnoreCase("DONE")) {
+            String[] fields = line.trim().split(",");
+            int x = Integer.parseInt(fields[0].trim());
+            int y = Integer.parseInt(fields[1].trim());
+            chessArray[x][y] = Integer.parseInt(fields[2].trim()) == 1 ? OWN : OPPONENT;
+        }
+        engine.getBoard().sync(chessArray);
+    }
+
+    //INFO命令：只处理时间和内存限制，其余忽略
+    private void info(String argument) {
+        int space = argument.indexOf(' ');
+        if (space < 0) {
+            return;
+        }
+        String key = argument.substring(0, space);
+        String value = argument.substring(space + 1).trim();
+        switch (key) {
+            case "timeout_turn":
+                turnTime = Long.parseLong(value);
+                break;
+            case "time_left":
+                timeLeft = Long.parseLong(value);
+                break;
+            case "max_memory":
+                //置换表最多使用一半的内存，其余留给JVM和引擎的其他部分，0表示不限制
+                long maxMemory = Long.parseLong(value);
+                int size = maxMemory == 0 ? DEFAULT_HASH_SIZE
+                        : (int) Math.max(1, Math.min(DEFAULT_HASH_SIZE, maxMemory / 2 / (1 << 20)));
+                if (size != hashSize) {
+                    hashSize = size;
+                    if (engine != null) {
+                        engine.setHashSize(hashSize);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    //计算并输出己方落子
+    private void play() {
+        engine.setTimeLimit(getTimeLimit());
+        Point point = engine.select(OWN);
+        if (point == null) {
+            out.println("ERROR board is full");
+            return;
+        }
+        SearchResult result = engine.getLastResult();
+        if (result != null) {
+            out.println("MESSAGE depth " + result.getDepth() + " score " + result.getScore()
+                    + " nodes " + result.getNodes() + " time " + result.getTime());
+        }
+        place(point.getX(), point.getY(), OWN);
+        out.println(point.getX() + "," + point.getY());
+    }
+
+    //本步的时间预算：不超过每步限制，也不超过剩余时间平均分配到之后的步数
+    private long getTimeLimit() {
+        long limit = turnTime > 0 ? turnTime : 1;
+        if (timeLeft >= 0) {
+            limit = Math.min(limit, timeLeft / MOVES_TO_GO);
+        }
+        return Math.max(1, limit - TIME_MARGIN);
+    }
+
+    private void place(int x, int y, int chess) {
+        Board board = engine.getBoard();
+        if (x < 0 || y < 0 || x >= board.getSize() || y >= board.getSize() || !board.isEmpty(x, y)) {
+            throw new IllegalArgumentException("illegal move " + x + "," + y);
+        }
+        board.place(x, y, chess);
+    }
+
+    private static int[] parseMove(String argument) {
+        String[] fields = argument.split(",");
+        return new int[]{Integer.parseInt(fields[0].trim()), Integer.parseInt(fields[1].trim())};
+    }
+
+    public static void main(String[] args) throws IOException {
+        new Piskvork(new BufferedReader(new InputStreamReader(System.in)), System.out).run();
+    }
+}
@@ -0,0 +1,64 @@
+package com.hao.ai;
+
+/**
+ * 搜索结果
+ * 记录最佳落点以及最后一次完成的迭代深度等统计信息
+ */
+
+public class SearchResult {
+    //最佳落点
+    private final int x, y;
+    //最佳落点的评分（站在落子一方）
+    private final int score;
+    //最后完成的搜索深度
+    private final int depth;
+    //搜索的节点数
+    private final long nodes;
+    //搜索用时（毫秒）
+    private final long time;
+
+    public SearchResult(int x, int y, int score, int depth, long nodes, long time) {
+        this.x = x;
+        this.y = y;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.time = time;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+                "x=" + x +
+                ", y=" + y +
+                ", score=" + score +
+                ", depth=" + depth +
+                ", nodes=" + nodes +
+                ", time=" + time +
+                '}';
+    }
+}
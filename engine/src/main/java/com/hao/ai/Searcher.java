@@ -0,0 +1,413 @@
+package com.hao.ai;
+
+/**
+ * 博弈树搜索
+ * 负极大值形式的alpha-beta搜索，使用迭代加深、主要变例搜索（PVS）以及渴望窗口，
+ * 按置换表中的最佳落点以及Evaluator的优先级评分排序着法，在时间或节点数用完时停止，
+ * 返回最后一次完整完成的深度得到的最佳落点
+ */
+
+public class Searcher {
+    //必胜评分（减去步数，越快获胜评分越高）
+    public static final int WIN = 10000000;
+    //超过此值的评分表示已经算出胜负
+    public static final int WIN_THRESHOLD = WIN - 1000;
+    //无穷大
+    private static final int INFINITY = WIN + 1;
+    //最大搜索步数
+    private static final int MAX_PLY = 64;
+    //非根节点最多搜索的分支数
+    private static final int MAX_BRANCH = 16;
+    //渴望窗口半径
+    private static final int ASPIRATION = 500;
+    //每搜索多少个节点检查一次时间
+    private static final int CHECK_INTERVAL = 1024;
+    //默认的最大迭代深度
+    public static final int DEFAULT_MAX_DEPTH = 20;
+
+    //位棋盘
+    private final Board board;
+    //增量评分
+    private final Evaluator evaluator;
+    //候选落点
+    private final MoveGenerator generator;
+    //置换表（可以由多个搜索共享）
+    private TranspositionTable table;
+    //棋盘宽高
+    private final int size;
+    //每一步的候选落点以及排序用的评分（预先分配，搜索时不创建对象）
+    private final int[][] moves;
+    private final int[][] moveScores;
+
+    //时间限制（毫秒），0表示不限制
+    private long timeLimit = 1000;
+    //节点数限制，0表示不限制
+    private long nodeLimit = 0;
+    //最大迭代深度
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+
+    //已搜索的节点数
+    private long nodes;
+    //截止时间
+    private long deadline;
+    //是否因时间或节点数用完而中止
+    private boolean aborted;
+    //是否被其他线程要求停止
+    private volatile boolean stopped;
+    //并行搜索中的辅助线程序号，0表示主搜索
+    private int helperId;
+    //当前迭代根节点的最佳落点
+    private int rootBestMove;
+
+    public Searcher(Board board, Evaluator evaluator, MoveGenerator generator, TranspositionTable table) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.generator = generator;
+        this.table = table;
+        this.size = board.getSize();
+        moves = new int[MAX_PLY][size * size];
+        moveScores = new int[MAX_PLY][size * size];
+    }
+
+    /**
+     * 为指定一方搜索最佳落点
+     *
+     * @param chess 落子一方
+     * @return 搜索结果，棋盘已满时返回null
+     */
+    public SearchResult search(int chess) {
+        stopped = false;
+        return iterate(chess);
+    }
+
+    /**
+     * 迭代加深搜索，不清除停止标识（并行搜索时由主线程在启动前调用resume）
+     *
+     * @param chess 落子一方
+     * @return 搜索结果，棋盘已满时返回null
+     */
+    SearchResult iterate(int chess) {
+        long startTime = System.currentTimeMillis();
+        deadline = timeLimit > 0 ? startTime + timeLimit : Long.MAX_VALUE;
+        nodes = 0;
+        aborted = stopped;
+        //置换表的搜索代数由主搜索更新
+        if (helperId == 0) {
+            table.newSearch();
+        }
+        int count = generateMoves(chess, 0);
+        if (count == 0) {
+            return null;
+        }
+        int[] rootMoves = moves[0];
+        //能直接五连时不需要搜索
+        for (int i = 0; i < count; i++) {
+            int move = rootMoves[i];
+            if (evaluator.getBestShape(chess, move / size, move % size) == PatternTable.FIVE) {
+                return new SearchResult(move / size, move % size, WIN, 0, nodes,
+                        System.currentTimeMillis() - startTime);
+            }
+        }
+        //对称的局面中互相对称的落点只搜索一个
+        count = removeSymmetricMoves(rootMoves, count);
+        //还没有完成任何深度时，使用排序后的第一个落点
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        //辅助线程从不同的深度开始，与主搜索错开，通过置换表共享结果
+        for (int depth = 1 + helperId % 3; depth <= maxDepth && !aborted; depth++) {
+            //以上一次的评分为中心设置渴望窗口，失败时使用完整窗口重新搜索
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            if (completedDepth > 0 && Math.abs(bestScore) < WIN_THRESHOLD) {
+                alpha = bestScore - ASPIRATION;
+                beta = bestScore + ASPIRATION;
+            }
+            int score = searchRoot(chess, depth, alpha, beta, count);
+            if (!aborted && (score <= alpha || score >= beta)) {
+                score = searchRoot(chess, depth, -INFINITY, INFINITY, count);
+            }
+            if (aborted) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            table.store(board.getHash() ^ Zobrist.side(chess), bestMove, bestScore, depth,
+                    TranspositionTable.EXACT);
+            //下一次迭代先搜索当前最佳落点
+            moveToFront(rootMoves, count, bestMove);
+            //已经算出胜负
+            if (Math.abs(bestScore) >= WIN_THRESHOLD) {
+                break;
+            }
+        }
+        return new SearchResult(bestMove / size, bestMove % size, bestScore, completedDepth,
+                nodes, System.currentTimeMillis() - startTime);
+    }
+
+    //根节点搜索，记录最佳落点
+    private int searchRoot(int chess, int depth, int alpha, int beta, int count) {
+        int[] rootMoves = moves[0];
+        int opponent = Board.opposite(chess);
+        int best = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int move = rootMoves[i];
+            board.make(move, chess);
+            int score;
+            if (i == 0) {
+                score = -negamax(opponent, depth - 1, -beta, -alpha, 1);
+            } else {
+                //零窗口搜索，可能更好时再用完整窗口搜索
+                score = -negamax(opponent, depth - 1, -alpha - 1, -alpha, 1);
+                if (score > alpha && score < beta) {
+                    score = -negamax(opponent, depth - 1, -beta, -alpha, 1);
+                }
+            }
+            board.unmake();
+            if (aborted) {
+                return best;
+            }
+            if (score > best) {
+                best = score;
+                rootBestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 负极大值alpha-beta搜索
+     *
+     * @param chess 轮到落子的一方
+     * @param depth 剩余深度
+     * @param alpha 下界
+     * @param beta  上界
+     * @param ply   距离根节点的步数
+     * @return 站在chess一方的评分
+     */
+    private int negamax(int chess, int depth, int alpha, int beta, int ply) {
+        if (++nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+        //轮到的一方能直接五连
+        if (evaluator.getShapeCount(chess, PatternTable.FIVE) > 0) {
+            return WIN - ply;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(chess);
+        }
+        //查找置换表，深度足够时直接使用记录的评分，否则只用记录的最佳落点排序
+        long key = board.getHash() ^ Zobrist.side(chess);
+        long entry = table.probe(key);
+        int tableMove = -1;
+        if (entry != TranspositionTable.MISS) {
+            tableMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.getScore(entry), ply);
+                int flag = TranspositionTable.getFlag(entry);
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER && score >= beta)
+                        || (flag == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        int count = generateMoves(chess, ply);
+        if (count == 0) {
+            //棋盘已满，平局
+            return 0;
+        }
+        int[] list = moves[ply];
+        if (tableMove >= 0) {
+            moveToFront(list, count, tableMove);
+        }
+        count = Math.min(count, MAX_BRANCH);
+        int opponent = Board.opposite(chess);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            board.make(list[i], chess);
+            int score;
+            if (i == 0) {
+                score = -negamax(opponent, depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -negamax(opponent, depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) {
+                    score = -negamax(opponent, depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            board.unmake();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = list[i];
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        int flag = best >= beta ? TranspositionTable.LOWER
+                : best <= originalAlpha ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+        table.store(key, bestMove, toTable(best, ply), depth, flag);
+        return best;
+    }
+
+    //置换表中的胜负评分记录为距离当前局面的步数，存取时换算
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score + ply;
+        } else if (score <= -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score - ply;
+        } else if (score <= -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * 生成候选落点：已有棋子附近的空位（对方有威胁时只有应对的落点），按优先级评分从高到低排序
+     * 评分与AI原来的规则一致，取己方和对方评分中较大的一个
+     *
+     * @param chess 落子一方
+     * @param ply   距离根节点的步数
+     * @return 候选落点数
+     */
+    private int generateMoves(int chess, int ply) {
+        int[] list = moves[ply];
+        int[] scores = moveScores[ply];
+        int opponent = Board.opposite(chess);
+        //空棋盘下在中间
+        if (board.getStoneCount() == 0) {
+            list[0] = (size / 2) * size + size / 2;
+            return 1;
+        }
+        int count = generator.generate(chess, list);
+        //插入排序
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            int selfPriority = evaluator.getScore(chess, move / size, move % size);
+            int userPriority = evaluator.getScore(opponent, move / size, move % size);
+            int priority = selfPriority >= userPriority ? selfPriority : userPriority;
+            int k = i;
+            while (k > 0 && scores[k - 1] < priority) {
+                list[k] = list[k - 1];
+                scores[k] = scores[k - 1];
+                k--;
+            }
+            list[k] = move;
+            scores[k] = priority;
+        }
+        return count;
+    }
+
+    /**
+     * 局面具有对称性时，互相对称的落点评分相同，只保留每组中排序最靠前的一个，
+     * 保留的落点本身就是真实的落点，不需要再变换回来
+     *
+     * @param list  根节点落点
+     * @param count 落点数
+     * @return 保留的落点数
+     */
+    private int removeSymmetricMoves(int[] list, int count) {
+        int mask = board.getSymmetryMask();
+        if (mask == 1) {
+            return count;
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            boolean isDuplicate = false;
+            for (int symmetry = 1; symmetry < Board.SYMMETRY_COUNT && !isDuplicate; symmetry++) {
+                if ((mask & 1 << symmetry) != 0) {
+                    int image = board.transform(symmetry, move);
+                    for (int k = 0; k < kept; k++) {
+                        if (list[k] == image) {
+                            isDuplicate = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (!isDuplicate) {
+                list[kept++] = move;
+            }
+        }
+        return kept;
+    }
+
+    //将指定落点移到最前面，其余顺序不变
+    private static void moveToFront(int[] list, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == move) {
+                System.arraycopy(list, 0, list, 1, i);
+                list[0] = move;
+                return;
+            }
+        }
+    }
+
+    //检查时间和节点数是否用完
+    private void checkLimits() {
+        if (stopped || (nodeLimit > 0 && nodes >= nodeLimit) || System.currentTimeMillis() >= deadline) {
+            aborted = true;
+        }
+    }
+
+    //停止搜索（可以在其他线程调用），返回最后完成的深度的结果
+    public void stop() {
+        stopped = true;
+    }
+
+    //清除停止标识
+    void resume() {
+        stopped = false;
+    }
+
+    /**
+     * 设置为并行搜索的辅助线程
+     *
+     * @param helperId 辅助线程序号，0表示主搜索
+     */
+    public void setHelperId(int helperId) {
+        this.helperId = helperId;
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    public void setTable(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+}
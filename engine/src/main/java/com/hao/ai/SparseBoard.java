@@ -0,0 +1,242 @@
+package com.hao.ai;
+
+/**
+ * 无限棋盘
+ * 只保存已经落下的棋子：以坐标打包成的long为键的开放寻址哈希表（线性探测），
+ * 内存以及落子、查询的开销只与棋子数有关，与坐标范围无关。
+ * 坐标可以为负数；不是线程安全的，修改只应在一个线程中进行，其他线程读取时使用copy得到的副本
+ */
+
+public class SparseBoard {
+    //初始容量（2的幂）
+    private static final int INITIAL_CAPACITY = 64;
+
+    //键（打包的坐标）
+    private long[] keys;
+    //棋子颜色，Chess.NONE表示空槽
+    private byte[] values;
+    //槽序号掩码
+    private int mask;
+    //棋子数
+    private int stoneCount;
+    //棋子的范围（提掉边缘的棋子后重新计算）
+    private int minX, maxX, minY, maxY;
+    //最后一次落子的位置
+    private int lastX, lastY;
+
+    public SparseBoard() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new byte[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    //复制棋盘（在修改棋盘的线程中调用，副本可以交给其他线程读取）
+    public SparseBoard copy() {
+        SparseBoard copy = new SparseBoard();
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.mask = mask;
+        copy.stoneCount = stoneCount;
+        copy.minX = minX;
+        copy.maxX = maxX;
+        copy.minY = minY;
+        copy.maxY = maxY;
+        copy.lastX = lastX;
+        copy.lastY = lastY;
+        return copy;
+    }
+
+    //坐标打包为键
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    //键的初始槽位（打散低位相近的坐标）
+    private int slot(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    //键所在的槽，不存在时返回应该插入的空槽
+    private int find(long key) {
+        int i = slot(key);
+        while (values[i] != Chess.NONE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    public int get(int x, int y) {
+        return values[find(key(x, y))];
+    }
+
+    public boolean isEmpty(int x, int y) {
+        return get(x, y) == Chess.NONE;
+    }
+
+    //落子（位置必须为空）
+    public void place(int x, int y, int chess) {
+        //装载率不超过一半
+        if ((stoneCount + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        long key = key(x, y);
+        int i = find(key);
+        if (values[i] == Chess.NONE) {
+            stoneCount++;
+        }
+        keys[i] = key;
+        values[i] = (byte) chess;
+        if (stoneCount == 1) {
+            minX = maxX = x;
+            minY = maxY = y;
+        } else {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        lastX = x;
+        lastY = y;
+    }
+
+    //提子，之后的同一簇条目向前移动填补空位（不使用删除标记）
+    public void remove(int x, int y) {
+        int i = find(key(x, y));
+        if (values[i] == Chess.NONE) {
+            return;
+        }
+        values[i] = Chess.NONE;
+        stoneCount--;
+        for (int j = (i + 1) & mask; values[j] != Chess.NONE; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            //j的初始槽位不在(i, j]之间时，可以移动到i
+            if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = Chess.NONE;
+                i = j;
+            }
+        }
+        if (x == minX || x == maxX || y == minY || y == maxY) {
+            updateBounds();
+        }
+    }
+
+    //遍历所有棋子重新计算范围
+    private void updateBounds() {
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != Chess.NONE) {
+                minX = Math.min(minX, getX(i));
+                maxX = Math.max(maxX, getX(i));
+                minY = Math.min(minY, getY(i));
+                maxY = Math.max(maxY, getY(i));
+            }
+        }
+    }
+
+    //扩容并重新插入所有棋子
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[capacity];
+        values = new byte[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != Chess.NONE) {
+                int j = find(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    //清空棋盘（保留容量）
+    public void clear() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Chess.NONE;
+        }
+        stoneCount = 0;
+    }
+
+    /**
+     * 判断经过指定点的四条线上是否存在五子相连
+     *
+     * @param x     坐标
+     * @param y     坐标
+     * @param chess 棋子颜色
+     * @return 是否五连
+     */
+    public boolean isFive(int x, int y, int chess) {
+        for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+            int dx = Board.DX[direction];
+            int dy = Board.DY[direction];
+            int count = 1;
+            for (int i = 1; i < 5 && get(x + dx * i, y + dy * i) == chess; i++) {
+                count++;
+            }
+            for (int i = 1; i < 5 && get(x - dx * i, y - dy * i) == chess; i++) {
+                count++;
+            }
+            if (count >= 5) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 槽的数量，与getX、getY、getChess一起遍历所有棋子：
+     * for (int i = 0; i < board.getCapacity(); i++) if (board.getChess(i) != Chess.NONE) ...
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    //第i个槽的棋子颜色，空槽为Chess.NONE
+    public int getChess(int i) {
+        return values[i];
+    }
+
+    //第i个槽的x坐标
+    public int getX(int i) {
+        return (int) (keys[i] >> 32);
+    }
+
+    //第i个槽的y坐标
+    public int getY(int i) {
+        return (int) keys[i];
+    }
+
+    public int getStoneCount() {
+        return stoneCount;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getLastX() {
+        return lastX;
+    }
+
+    public int getLastY() {
+        return lastY;
+    }
+}
@@ -0,0 +1,151 @@
+package com.hao.ai;
+
+/**
+ * 序贯概率比检验（SPRT）
+ * 按胜、和、负三项分布近似计算对数似然比：H0为Elo差等于elo0，H1为Elo差等于elo1，
+ * 对数似然比超过上界时接受H1（新配置更强），低于下界时接受H0，否则继续对局
+ */
+
+public class Sprt {
+    //结论
+    public static final int CONTINUE = 0;
+    public static final int ACCEPT_H0 = 1;
+    public static final int ACCEPT_H1 = 2;
+    //计算对数似然比时胜、负各加的虚拟局数
+    private static final double PSEUDO_GAMES = 0.5;
+
+    //H0、H1对应的期望得分
+    private final double score0;
+    private final double score1;
+    //对数似然比的下界、上界
+    private final double lowerBound;
+    private final double upperBound;
+
+    //胜、和、负局数
+    private int wins;
+    private int draws;
+    private int losses;
+
+    /**
+     * @param elo0  H0的Elo差
+     * @param elo1  H1的Elo差
+     * @param alpha 第一类错误概率（错误接受H1）
+     * @param beta  第二类错误概率（错误接受H0）
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        score0 = expectedScore(elo0);
+        score1 = expectedScore(elo1);
+        lowerBound = Math.log(beta / (1 - alpha));
+        upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    //Elo差对应的期望得分
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * 加入一局的结果
+     *
+     * @param score 1为胜，0.5为和，0为负
+     */
+    public void add(double score) {
+        if (score > 0.5) {
+            wins++;
+        } else if (score < 0.5) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    //平均得分
+    public double getScore() {
+        return getGames() == 0 ? 0.5 : (wins + draws * 0.5) / getGames();
+    }
+
+    //每局得分的方差
+    private double getVariance() {
+        return variance(wins, draws, losses);
+    }
+
+    //胜、和、负局数对应的每局得分的方差
+    private static double variance(double wins, double draws, double losses) {
+        double games = wins + draws + losses;
+        double score = (wins + draws * 0.5) / games;
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / games;
+    }
+
+    /**
+     * 对数似然比
+     * 胜、负各加PSEUDO_GAMES局虚拟对局：全胜、全负、全和时方差不为0，最一边倒的情况也能得出结论；
+     * 对局多时虚拟对局的影响可以忽略
+     */
+    public double getLlr() {
+        if (getGames() == 0) {
+            return 0;
+        }
+        double regularizedWins = wins + PSEUDO_GAMES;
+        double regularizedLosses = losses + PSEUDO_GAMES;
+        double games = regularizedWins + draws + regularizedLosses;
+        double score = (regularizedWins + draws * 0.5) / games;
+        double variance = variance(regularizedWins, draws, regularizedLosses);
+        return games * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance);
+    }
+
+    public int getResult() {
+        double llr = getLlr();
+        if (llr >= upperBound) {
+            return ACCEPT_H1;
+        } else if (llr <= lowerBound) {
+            return ACCEPT_H0;
+        }
+        return CONTINUE;
+    }
+
+    //由平均得分估计的Elo差
+    public double getElo() {
+        return elo(getScore());
+    }
+
+    //Elo差95%置信区间的半宽
+    public double getEloError() {
+        int games = getGames();
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double error = 1.96 * Math.sqrt(getVariance() / games);
+        return (elo(getScore() + error) - elo(getScore() - error)) / 2;
+    }
+
+    //得分对应的Elo差（全胜、全负时取有限值）
+    private static double elo(double score) {
+        score = Math.min(Math.max(score, 1e-3), 1 - 1e-3);
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+}
@@ -0,0 +1,177 @@
+package com.hao.ai;
+
+/**
+ * 连续冲四（VCF）/ 连续活三（VCT）求解
+ * 只考虑进攻方的冲四、活三以及防守方被迫的应手，在节点数限制内找出必胜的落子序列。
+ * 进攻方每一步都必须是威胁，防守方只有挡住威胁或者反冲四两种选择，所以分支很少，
+ * 十几步以上的杀棋也能很快算出
+ */
+
+public class ThreatSolver {
+    //默认节点数限制
+    private static final int DEFAULT_NODE_LIMIT = 20000;
+    //最大步数
+    private static final int MAX_PLY = 48;
+
+    //位棋盘
+    private final Board board;
+    //增量评分（提供每个空位的棋型）
+    private final Evaluator evaluator;
+    //候选落点（威胁点都在已有棋子附近）
+    private final MoveGenerator generator;
+    //棋盘宽高
+    private final int size;
+    //每一步的候选落点（预先分配）
+    private final int[][] moves;
+    //找到的必胜序列
+    private final int[] winLine = new int[MAX_PLY + 2];
+    private int winLength;
+
+    //节点数限制
+    private int nodeLimit = DEFAULT_NODE_LIMIT;
+    //已搜索的节点数
+    private int nodes;
+    //是否搜索活三
+    private boolean isVct;
+
+    public ThreatSolver(Board board, Evaluator evaluator, MoveGenerator generator) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.generator = generator;
+        this.size = board.getSize();
+        moves = new int[MAX_PLY + 1][size * size];
+    }
+
+    /**
+     * 求解连续冲四
+     *
+     * @param chess 进攻方
+     * @return 必胜序列（x * size + y，进攻方、防守方交替），没有找到时返回null
+     */
+    public int[] solveVcf(int chess) {
+        return solve(chess, false);
+    }
+
+    /**
+     * 求解连续活三（其中可以夹杂冲四）
+     *
+     * @param chess 进攻方
+     * @return 必胜序列（x * size + y，进攻方、防守方交替），没有找到时返回null
+     */
+    public int[] solveVct(int chess) {
+        return solve(chess, true);
+    }
+
+    private int[] solve(int chess, boolean isVct) {
+        this.isVct = isVct;
+        nodes = 0;
+        winLength = 0;
+        if (!attack(chess, 0)) {
+            return null;
+        }
+        int[] line = new int[winLength];
+        System.arraycopy(winLine, 0, line, 0, winLength);
+        return line;
+    }
+
+    /**
+     * 进攻方落子：只尝试冲四以及活三
+     *
+     * @param chess 进攻方
+     * @param ply   步数
+     * @return 是否必胜
+     */
+    private boolean attack(int chess, int ply) {
+        if (++nodes > nodeLimit || ply >= MAX_PLY) {
+            return false;
+        }
+        int opponent = Board.opposite(chess);
+        int[] list = moves[ply];
+        //能直接五连
+        if (generator.collect(chess, PatternTable.FIVE, PatternTable.FIVE, list, 0) > 0) {
+            winLine[ply] = list[0];
+            winLength = ply + 1;
+            return true;
+        }
+        //对方能五连时只能在那里堵，且这一步自己也必须是威胁
+        int count = 0;
+        if (generator.collect(opponent, PatternTable.FIVE, PatternTable.FIVE, list, 0) > 0) {
+            int block = list[0];
+            int shape = evaluator.getBestShape(chess, block / size, block % size);
+            if (shape >= PatternTable.DEAD_FOUR || (isVct && shape == PatternTable.LIVE_THREE)) {
+                list[count++] = block;
+            }
+        } else {
+            //先冲四，再活三
+            count = generator.collect(chess, PatternTable.DEAD_FOUR, PatternTable.LIVE_FOUR, list, 0);
+            if (isVct) {
+                count = generator.collect(chess, PatternTable.LIVE_THREE, PatternTable.LIVE_THREE, list, count);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            board.make(move, chess);
+            boolean isWin = defend(chess, ply + 1);
+            board.unmake();
+            if (isWin) {
+                winLine[ply] = move;
+                return true;
+            }
+            if (nodes > nodeLimit) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 防守方落子：挡住冲四，或者挡住活三/反冲四，所有应手进攻方都要能赢
+     *
+     * @param chess 进攻方
+     * @param ply   步数
+     * @return 是否必胜
+     */
+    private boolean defend(int chess, int ply) {
+        if (++nodes > nodeLimit || ply >= MAX_PLY) {
+            return false;
+        }
+        int opponent = Board.opposite(chess);
+        //防守方能直接五连
+        if (evaluator.getShapeCount(opponent, PatternTable.FIVE) > 0) {
+            return false;
+        }
+        int[] list = moves[ply];
+        int count = generator.collect(chess, PatternTable.FIVE, PatternTable.FIVE, list, 0);
+        if (count >= 2) {
+            //活四或双四，挡不住
+            winLine[ply] = list[0];
+            winLine[ply + 1] = list[1];
+            winLength = ply + 2;
+            return true;
+        }
+        if (count == 0) {
+            //活三：挡在进攻方能成四的位置，或者自己冲四
+            count = generator.collect(chess, PatternTable.DEAD_FOUR, PatternTable.LIVE_FOUR, list, 0);
+            count = generator.collect(opponent, PatternTable.DEAD_FOUR, PatternTable.LIVE_FOUR, list, count);
+        }
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            board.make(move, opponent);
+            boolean isWin = attack(chess, ply + 1);
+            board.unmake();
+            if (!isWin) {
+                return false;
+            }
+            winLine[ply] = move;
+        }
+        return count > 0;
+    }
+
+    public void setNodeLimit(int nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,244 @@
+package com.hao.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 自我对弈比赛
+ * 两种引擎配置在所有CPU上并行对局，每个开局（固定种子随机生成）双方各执白一次，
+ * 每下完一局输出战绩、Elo差以及SPRT的对数似然比，得出结论或者达到最大局数时停止
+ * 用法：Tournament [--a 配置] [--b 配置] [--games 最大局数] [--threads 线程数] [--seed 种子]
+ * [--opening 开局步数] [--elo0 0] [--elo1 10] [--alpha 0.05] [--beta 0.05]
+ * 配置为逗号分隔的key=value：nodes（每步节点数）、time（每步毫秒数）、threat（杀棋求解节点数）、
+ * hash（置换表MB）、book（开局库文件），例如 --a nodes=40000 --b nodes=20000
+ */
+
+public class Tournament {
+    //棋盘宽高
+    private static final int SIZE = 15;
+    //默认每步节点数
+    private static final long DEFAULT_NODE_LIMIT = 20000;
+    //默认配置
+    private static final String DEFAULT_CONFIG = "nodes=" + DEFAULT_NODE_LIMIT;
+    //默认置换表大小（MB），并行对局时每个引擎各一个
+    private static final int DEFAULT_HASH_SIZE = 4;
+
+    //两种配置
+    private final String configA;
+    private final String configB;
+    //开局随机落子的步数
+    private final int openingPlies;
+    //开局种子
+    private final long seed;
+    //是否已经得出结论
+    private volatile boolean finished;
+
+    public Tournament(String configA, String configB, int openingPlies, long seed) {
+        this.configA = configA;
+        this.configB = configB;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * 进行比赛，直到SPRT得出结论或者达到最大局数
+     *
+     * @param sprt     统计
+     * @param maxGames 最大局数
+     * @param threads  并行对局数
+     * @return SPRT结论
+     */
+    public int run(Sprt sprt, int maxGames, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<double[]> completion = new ExecutorCompletionService<>(executor);
+        int pairs = (maxGames + 1) / 2;
+        for (int i = 0; i < pairs; i++) {
+            final int pair = i;
+            completion.submit(new Callable<double[]>() {
+                @Override
+                public double[] call() throws IOException {
+                    return playPair(pair);
+                }
+            });
+        }
+        int result = Sprt.CONTINUE;
+        try {
+            for (int i = 0; i < pairs && result == Sprt.CONTINUE; i++) {
+                double[] scores = completion.take().get();
+                for (double score : scores) {
+                    //被中止的对局不计
+                    if (score >= 0) {
+                        sprt.add(score);
+                    }
+                }
+                report(sprt);
+                result = sprt.getResult();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            finished = true;
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * 同一个开局下两局，A先执白、再执黑
+     *
+     * @param pair 开局序号
+     * @return A在两局中的得分（1胜、0.5和、0负，-1为被中止）
+     */
+    private double[] playPair(int pair) throws IOException {
+        Engine a = createEngine(configA);
+        Engine b = createEngine(configB);
+        a.setSeed(seed * 31 + pair);
+        b.setSeed(seed * 31 + pair);
+        int[] opening = createOpening(pair);
+        double first = playGame(a, b, opening);
+        double second = playGame(b, a, opening);
+        a.shutdown();
+        b.shutdown();
+        return new double[]{first, second < 0 ? second : 1 - second};
+    }
+
+    //以开局序号和种子生成开局：在中间7x7内随机落子
+    private int[] createOpening(int pair) {
+        Random random = new Random(seed * 31 + pair);
+        int[] opening = new int[openingPlies];
+        for (int i = 0; i < openingPlies; i++) {
+            int move;
+            boolean isUsed;
+            do {
+                move = (SIZE / 2 - 3 + random.nextInt(7)) * SIZE + SIZE / 2 - 3 + random.nextInt(7);
+                isUsed = false;
+                for (int k = 0; k < i; k++) {
+                    isUsed |= opening[k] == move;
+                }
+            } while (isUsed);
+            opening[i] = move;
+        }
+        return opening;
+    }
+
+    /**
+     * 下一局
+     *
+     * @param white   执白（先手）的引擎
+     * @param black   执黑的引擎
+     * @param opening 开局
+     * @return 白方得分，-1为被中止
+     */
+    private double playGame(Engine white, Engine black, int[] opening) {
+        white.clear();
+        black.clear();
+        int chess = Chess.WHITE;
+        for (int ply = 0; ply < SIZE * SIZE; ply++) {
+            if (finished) {
+                return -1;
+            }
+            int move;
+            if (ply < opening.length) {
+                move = opening[ply];
+            } else {
+                Point point = (chess == Chess.WHITE ? white : black).select(chess);
+                if (point == null) {
+                    break;
+                }
+                move = point.getX() * SIZE + point.getY();
+            }
+            //双方的棋盘同步落子
+            white.getBoard().place(move / SIZE, move % SIZE, chess);
+            black.getBoard().place(move / SIZE, move % SIZE, chess);
+            if (white.getBoard().isFive(move / SIZE, move % SIZE, chess)) {
+                return chess == Chess.WHITE ? 1 : 0;
+            }
+            chess = Board.opposite(chess);
+        }
+        return 0.5;
+    }
+
+    /**
+     * 按配置创建单线程引擎
+     *
+     * @param config 逗号分隔的key=value
+     * @return 引擎
+     */
+    static Engine createEngine(String config) throws IOException {
+        Map<String, String> options = parseConfig(config);
+        Engine engine = new Engine(SIZE, options.containsKey("hash")
+                ? Integer.parseInt(options.get("hash")) : DEFAULT_HASH_SIZE);
+        engine.setThreadCount(1);
+        engine.setTimeLimit(options.containsKey("time") ? Long.parseLong(options.get("time")) : 0);
+        //两者都没有设置时按默认节点数，避免无限搜索
+        engine.setNodeLimit(options.containsKey("nodes") ? Long.parseLong(options.get("nodes"))
+                : options.containsKey("time") ? 0 : DEFAULT_NODE_LIMIT);
+        if (options.containsKey("threat")) {
+            engine.setThreatNodeLimit(Integer.parseInt(options.get("threat")));
+        }
+        if (options.containsKey("book")) {
+            engine.setOpeningBook(OpeningBook.open(new File(options.get("book"))));
+        }
+        return engine;
+    }
+
+    private static Map<String, String> parseConfig(String config) {
+        Map<String, String> options = new HashMap<>();
+        for (String option : config.split(",")) {
+            int index = option.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("bad option: " + option);
+            }
+            options.put(option.substring(0, index).trim(), option.substring(index + 1).trim());
+        }
+        return options;
+    }
+
+    //输出当前战绩
+    private static void report(Sprt sprt) {
+        System.out.println(String.format("games %d  +%d =%d -%d  elo %.1f +/- %.1f  llr %.2f [%.2f, %.2f]",
+                sprt.getGames(), sprt.getWins(), sprt.getDraws(), sprt.getLosses(),
+                sprt.getElo(), sprt.getEloError(), sprt.getLlr(),
+                sprt.getLowerBound(), sprt.getUpperBound()));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                System.err.println("usage: Tournament [--a config] [--b config] [--games n] [--threads n] "
+                        + "[--seed n] [--opening plies] [--elo0 e] [--elo1 e] [--alpha p] [--beta p]");
+                System.exit(1);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        String configA = get(options, "a", DEFAULT_CONFIG);
+        String configB = get(options, "b", DEFAULT_CONFIG);
+        int games = Integer.parseInt(get(options, "games", "10000"));
+        int threads = Integer.parseInt(get(options, "threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long seed = Long.parseLong(get(options, "seed", "1"));
+        int openingPlies = Integer.parseInt(get(options, "opening", "3"));
+        Sprt sprt = new Sprt(Double.parseDouble(get(options, "elo0", "0")),
+                Double.parseDouble(get(options, "elo1", "10")),
+                Double.parseDouble(get(options, "alpha", "0.05")),
+                Double.parseDouble(get(options, "beta", "0.05")));
+        System.out.println("A: " + configA + "  B: " + configB + "  seed " + seed + "  threads " + threads);
+        int result = new Tournament(configA, configB, openingPlies, seed).run(sprt, games, threads);
+        System.out.println(result == Sprt.ACCEPT_H1 ? "H1 accepted: A is stronger"
+                : result == Sprt.ACCEPT_H0 ? "H0 accepted: A is not stronger" : "no conclusion");
+    }
+
+    private static String get(Map<String, String> options, String key, String defaultValue) {
+        return options.containsKey(key) ? options.get(key) : defaultValue;
+    }
+}
@@ -0,0 +1,156 @@
+package com.hao.ai;
+
+/**
+ * 置换表
+ * 以Zobrist哈希为键记录已经搜索过的局面（评分、深度、最佳落点），遇到相同局面时直接复用。
+ * 整张表是一个预先分配的long数组，每个条目占两个long：[哈希 ^ 数据, 数据]，
+ * 读取时用异或校验，多个搜索线程可以不加锁共享同一张表，被并发写坏的条目只会校验失败而被忽略。
+ * 每个桶有两个条目，替换时优先保留深度更大、属于本次搜索的条目
+ */
+
+public class TranspositionTable {
+    //评分类型：准确值、下界（beta截断）、上界（所有落点都不超过alpha）
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+    //探测未命中
+    public static final long MISS = 0;
+
+    //每个条目占用的字节数
+    private static final int ENTRY_BYTES = 16;
+    //每个桶的条目数
+    private static final int BUCKET_SIZE = 2;
+
+    /**
+     * 数据各字段在long中的位置
+     * 0-31 评分，32-43 最佳落点+1（0表示没有），44-51 深度，52-53 评分类型，54-61 搜索代数，62 有效标识
+     */
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 44;
+    private static final int FLAG_SHIFT = 52;
+    private static final int AGE_SHIFT = 54;
+    private static final long VALID = 1L << 62;
+
+    //条目数组
+    private final long[] table;
+    //桶序号掩码
+    private final int bucketMask;
+    //搜索代数，每次新的搜索加一，用于淘汰旧条目
+    private volatile int age;
+
+    /**
+     * @param megabytes 置换表大小（MB），按2的幂向下取整
+     */
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(BUCKET_SIZE, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        int buckets = Integer.highestOneBit((int) Math.min(entries / BUCKET_SIZE, 1 << 26));
+        bucketMask = buckets - 1;
+        table = new long[buckets * BUCKET_SIZE * 2];
+    }
+
+    //开始新的搜索
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    //清空置换表
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = 0;
+        }
+    }
+
+    /**
+     * 查找局面
+     *
+     * @param key 局面哈希
+     * @return 条目数据，未命中时返回MISS
+     */
+    public long probe(long key) {
+        int index = bucketIndex(key);
+        for (int i = 0; i < BUCKET_SIZE; i++, index += 2) {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == key && data != MISS) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * 记录局面
+     *
+     * @param key   局面哈希
+     * @param move  最佳落点（x * size + y），没有时为-1
+     * @param score 评分
+     * @param depth 搜索深度
+     * @param flag  评分类型
+     */
+    public void store(long key, int move, int score, int depth, int flag) {
+        int index = bucketIndex(key);
+        int replace = -1;
+        //先在整个桶中找同一局面，避免同一局面占用两个条目
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int entry = index + i * 2;
+            long data = table[entry + 1];
+            if (data != MISS && (table[entry] ^ data) == key) {
+                //同一局面只在新结果不比原来浅，或原来的属于旧搜索时覆盖
+                if (getDepth(data) > depth && getAge(data) == age) {
+                    return;
+                }
+                replace = entry;
+                break;
+            }
+        }
+        if (replace < 0) {
+            //选择替换的条目：空条目 > 旧搜索留下的条目 > 深度较小的条目
+            int replaceDepth = Integer.MAX_VALUE;
+            for (int i = 0; i < BUCKET_SIZE; i++) {
+                int entry = index + i * 2;
+                long data = table[entry + 1];
+                int entryDepth = data == MISS ? -2 : getAge(data) == age ? getDepth(data) : -1;
+                if (entryDepth < replaceDepth) {
+                    replaceDepth = entryDepth;
+                    replace = entry;
+                }
+            }
+        }
+        long data = (score & 0xFFFFFFFFL)
+                | (long) (move + 1) << MOVE_SHIFT
+                | (long) depth << DEPTH_SHIFT
+                | (long) flag << FLAG_SHIFT
+                | (long) age << AGE_SHIFT
+                | VALID;
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE * 2;
+    }
+
+    public static int getScore(long data) {
+        return (int) data;
+    }
+
+    public static int getMove(long data) {
+        return (int) (data >>> MOVE_SHIFT & 0xFFF) - 1;
+    }
+
+    public static int getDepth(long data) {
+        return (int) (data >>> DEPTH_SHIFT & 0xFF);
+    }
+
+    public static int getFlag(long data) {
+        return (int) (data >>> FLAG_SHIFT & 0x3);
+    }
+
+    private static int getAge(long data) {
+        return (int) (data >>> AGE_SHIFT & 0xFF);
+    }
+
+    //条目数
+    public int getCapacity() {
+        return table.length / 2;
+    }
+}
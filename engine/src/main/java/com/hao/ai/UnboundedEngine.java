@@ -0,0 +1,312 @@
+package com.hao.ai;
+
+import java.util.Arrays;
+
+/**
+ * 无限棋盘的选点引擎
+ * 在对局区域上取一个WINDOW*WINDOW的窗口，把窗口内的棋子同步到普通的Engine上选点，再换算回无限棋盘的坐标。
+ * 棋子集中时窗口以所有棋子的范围为中心；分散到窗口放不下时，选择覆盖棋子权重最大的位置：
+ * 活跃棋型（五格内三子以上、没有对方棋子）中的棋子和最后一步权重最大，使双方的威胁都留在窗口内。
+ * 五连、冲四、活四（对方的活三）直接在无限棋盘上逐线判断，窗口以外的这些威胁不会被忽略：
+ * 己方能五连就五连，对方能五连就挡住，己方能形成活四或双四就落子，窗口以外对方能形成活四的点先占住，
+ * 都没有时才在窗口上搜索。每步的开销只与棋子数有关
+ */
+
+public class UnboundedEngine {
+    //窗口宽高
+    public static final int WINDOW = Zobrist.MAX_SIZE;
+    //棋子到窗口边缘至少留出的距离，使棋子周围的候选落点和连子都在窗口内
+    private static final int MARGIN = 4;
+    //窗口内留出边距后能容纳的棋子范围
+    private static final int INNER = WINDOW - MARGIN * 2;
+    //选择窗口位置时活跃棋型中的棋子、最后一步的权重，其他棋子为1
+    private static final int THREAT_WEIGHT = 64;
+    //在一个空位落子后的棋型：五连、冲四（只有一个空位能五连）、活四或双四（两个以上空位能五连）
+    private static final int SHAPE_FIVE = 3;
+    private static final int SHAPE_FOUR = 1;
+    private static final int SHAPE_OPEN_FOUR = 2;
+
+    //窗口上的引擎
+    private final Engine engine;
+    //窗口内的棋子，每步重新填写后与引擎的位棋盘增量同步
+    private final int[][] window = new int[WINDOW][WINDOW];
+    //窗口左上角在无限棋盘上的坐标
+    private int originX, originY;
+    //选择窗口位置用的棋子坐标、权重，以及按y排序的(y, 权重)，容量不足时扩大
+    private int[] stoneX = new int[64];
+    private int[] stoneY = new int[64];
+    private int[] weights = new int[64];
+    private long[] sorted = new long[64];
+
+    public UnboundedEngine() {
+        this(Engine.DEFAULT_HASH_SIZE);
+    }
+
+    //指定窗口上引擎的置换表大小（MB）
+    public UnboundedEngine(int hashSize) {
+        engine = new Engine(WINDOW, hashSize);
+    }
+
+    /**
+     * 为指定一方选择最佳落点（不落子）
+     *
+     * @param board 无限棋盘，计算期间不能被修改（界面线程修改的棋盘应先copy）
+     * @param chess 落子一方
+     * @return 无限棋盘上的落点，窗口已满时返回null
+     */
+    public Point select(SparseBoard board, int chess) {
+        if (board.getStoneCount() == 0) {
+            //第一步下在原点
+            return new Point(0, 0);
+        }
+        if (board.getMaxX() - board.getMinX() <= INNER && board.getMaxY() - board.getMinY() <= INNER) {
+            originX = (board.getMinX() + board.getMaxX()) / 2 - WINDOW / 2;
+            originY = (board.getMinY() + board.getMaxY()) / 2 - WINDOW / 2;
+        } else {
+            chooseWindow(board);
+        }
+        Point forced = findForced(board, chess);
+        if (forced != null) {
+            return forced;
+        }
+        for (int[] column : window) {
+            for (int j = 0; j < WINDOW; j++) {
+                column[j] = Chess.NONE;
+            }
+        }
+        for (int i = 0; i < board.getCapacity(); i++) {
+            if (board.getChess(i) != Chess.NONE) {
+                int x = board.getX(i) - originX;
+                int y = board.getY(i) - originY;
+                if (x >= 0 && x < WINDOW && y >= 0 && y < WINDOW) {
+                    window[x][y] = board.getChess(i);
+                }
+            }
+        }
+        engine.getBoard().sync(window);
+        Point point = engine.select(chess);
+        if (point == null) {
+            return null;
+        }
+        return new Point(point.getX() + originX, point.getY() + originY);
+    }
+
+    /**
+     * 棋子分散时选择窗口位置：枚举以某个棋子的x为左边界、某个棋子的y为上边界的INNER*INNER范围，
+     * 取覆盖的权重之和最大的一个，窗口以其中棋子的范围为中心
+     */
+    private void chooseWindow(SparseBoard board) {
+        int count = 0;
+        if (stoneX.length < board.getStoneCount()) {
+            int capacity = Integer.highestOneBit(board.getStoneCount()) * 2;
+            stoneX = new int[capacity];
+            stoneY = new int[capacity];
+            weights = new int[capacity];
+            sorted = new long[capacity];
+        }
+        for (int i = 0; i < board.getCapacity(); i++) {
+            int chess = board.getChess(i);
+            if (chess != Chess.NONE) {
+                int x = board.getX(i);
+                int y = board.getY(i);
+                stoneX[count] = x;
+                stoneY[count] = y;
+                boolean isLast = x == board.getLastX() && y == board.getLastY();
+                weights[count] = isLast || isThreat(board, x, y, chess) ? THREAT_WEIGHT : 1;
+                count++;
+            }
+        }
+        int bestWeight = -1;
+        int bestX = 0;
+        int bestY = 0;
+        for (int a = 0; a < count; a++) {
+            int left = stoneX[a];
+            //x在范围内的棋子按y排序，双指针求每个上边界覆盖的权重
+            int n = 0;
+            for (int b = 0; b < count; b++) {
+                if (stoneX[b] >= left && stoneX[b] <= left + INNER) {
+                    sorted[n++] = (long) stoneY[b] << 32 | weights[b];
+                }
+            }
+            Arrays.sort(sorted, 0, n);
+            int weight = 0;
+            for (int top = 0, bottom = 0; top < n; top++) {
+                int topY = (int) (sorted[top] >> 32);
+                while (bottom < n && (int) (sorted[bottom] >> 32) <= topY + INNER) {
+                    weight += (int) sorted[bottom++];
+                }
+                if (weight > bestWeight) {
+                    bestWeight = weight;
+                    bestX = left;
+                    bestY = topY;
+                }
+                weight -= (int) sorted[top];
+            }
+        }
+        //以范围内棋子的范围为中心
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (stoneX[i] >= bestX && stoneX[i] <= bestX + INNER && stoneY[i] >= bestY && stoneY[i] <= bestY + INNER) {
+                minX = Math.min(minX, stoneX[i]);
+                maxX = Math.max(maxX, stoneX[i]);
+                minY = Math.min(minY, stoneY[i]);
+                maxY = Math.max(maxY, stoneY[i]);
+            }
+        }
+        originX = (minX + maxX) / 2 - WINDOW / 2;
+        originY = (minY + maxY) / 2 - WINDOW / 2;
+    }
+
+    /**
+     * 在整个无限棋盘上找必须下的点，按优先级：己方五连、挡住对方五连、己方活四或双四、
+     * 窗口以外对方能形成活四或双四的点（有多个时取己方棋型最好的）。
+     * 候选点是每个棋子四个方向上四格以内的空位
+     *
+     * @return 落点，没有时返回null，由窗口上的引擎选点
+     */
+    private Point findForced(SparseBoard board, int chess) {
+        int opponent = Board.opposite(chess);
+        Point block = null;
+        Point attack = null;
+        Point defend = null;
+        int defendShape = -1;
+        for (int i = 0; i < board.getCapacity(); i++) {
+            if (board.getChess(i) == Chess.NONE) {
+                continue;
+            }
+            for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+                for (int k = -4; k <= 4; k++) {
+                    int x = board.getX(i) + Board.DX[direction] * k;
+                    int y = board.getY(i) + Board.DY[direction] * k;
+                    if (k == 0 || !board.isEmpty(x, y)) {
+                        continue;
+                    }
+                    int own = getShape(board, x, y, chess);
+                    if (own == SHAPE_FIVE) {
+                        return new Point(x, y);
+                    }
+                    int other = getShape(board, x, y, opponent);
+                    if (other == SHAPE_FIVE) {
+                        block = new Point(x, y);
+                    } else if (own == SHAPE_OPEN_FOUR && attack == null) {
+                        attack = new Point(x, y);
+                    } else if (other == SHAPE_OPEN_FOUR && own > defendShape && !isInWindow(board, x, y)) {
+                        defend = new Point(x, y);
+                        defendShape = own;
+                    }
+                }
+            }
+        }
+        if (block != null) {
+            return block;
+        }
+        return attack != null ? attack : defend;
+    }
+
+    //窗口上的引擎能否看到经过空位(x, y)的连子：(x, y)以及四条线上四格以内的棋子都在窗口内
+    private boolean isInWindow(SparseBoard board, int x, int y) {
+        for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+            for (int k = -4; k <= 4; k++) {
+                int cx = x + Board.DX[direction] * k;
+                int cy = y + Board.DY[direction] * k;
+                if ((k == 0 || !board.isEmpty(cx, cy)) && (cx < originX || cx >= originX + WINDOW
+                        || cy < originY || cy >= originY + WINDOW)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    //在空位(x, y)落下chess后的棋型：SHAPE_FIVE、SHAPE_OPEN_FOUR、SHAPE_FOUR或者0
+    private static int getShape(SparseBoard board, int x, int y, int chess) {
+        int completions = 0;
+        for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+            int dx = Board.DX[direction];
+            int dy = Board.DY[direction];
+            if (countLine(board, x, y, dx, dy, chess, x, y) >= 5) {
+                return SHAPE_FIVE;
+            }
+            //这条线上再落一子就能五连的空位（不同线上的空位不会重复）
+            for (int k = -4; k <= 4; k++) {
+                int cx = x + dx * k;
+                int cy = y + dy * k;
+                if (k != 0 && board.isEmpty(cx, cy) && countLine(board, cx, cy, dx, dy, chess, x, y) >= 5) {
+                    completions++;
+                }
+            }
+        }
+        return completions >= 2 ? SHAPE_OPEN_FOUR : completions == 1 ? SHAPE_FOUR : 0;
+    }
+
+    //(x, y)和(px, py)都落下chess时，经过(x, y)在dx, dy方向上连续的chess数（包括(x, y)）
+    private static int countLine(SparseBoard board, int x, int y, int dx, int dy, int chess, int px, int py) {
+        int count = 1;
+        for (int i = 1; i < 5; i++) {
+            int cx = x + dx * i;
+            int cy = y + dy * i;
+            if (board.get(cx, cy) != chess && (cx != px || cy != py)) {
+                break;
+            }
+            count++;
+        }
+        for (int i = 1; i < 5; i++) {
+            int cx = x - dx * i;
+            int cy = y - dy * i;
+            if (board.get(cx, cy) != chess && (cx != px || cy != py)) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    //(x, y)是否在某条线上五格内有三个以上己方棋子、没有对方棋子的范围中
+    private static boolean isThreat(SparseBoard board, int x, int y, int chess) {
+        int opponent = Board.opposite(chess);
+        for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+            int dx = Board.DX[direction];
+            int dy = Board.DY[direction];
+            for (int start = -4; start <= 0; start++) {
+                int own = 0;
+                boolean isBlocked = false;
+                for (int k = start; k < start + 5 && !isBlocked; k++) {
+                    int cell = board.get(x + dx * k, y + dy * k);
+                    own += cell == chess ? 1 : 0;
+                    isBlocked = cell == opponent;
+                }
+                if (!isBlocked && own >= 3) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    //开始新的一局
+    public void clear() {
+        engine.clear();
+    }
+
+    //停止正在进行的搜索（可以在其他线程调用），直到调用resume
+    public void stop() {
+        engine.stop();
+    }
+
+    //清除停止标识
+    public void resume() {
+        engine.resume();
+    }
+
+    //关闭搜索线程
+    public void shutdown() {
+        engine.shutdown();
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+}
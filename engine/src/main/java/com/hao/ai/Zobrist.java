@@ -0,0 +1,57 @@
+package com.hao.ai;
+
+/**
+ * Zobrist哈希
+ * 每个位置的每种棋子对应一个固定的64位随机数，局面的哈希为所有棋子对应随机数的异或，
+ * 落子、提子时只需异或一次即可增量更新。随机数由固定种子生成，不同进程中的哈希一致
+ */
+
+public final class Zobrist {
+    //支持的最大棋盘宽高
+    public static final int MAX_SIZE = 25;
+    //随机数种子
+    private static final long SEED = 0x5DEECE66DL;
+
+    //keys[棋子颜色][x * size + y]
+    private static final long[][] keys = new long[3][MAX_SIZE * MAX_SIZE];
+    //轮到落子一方的随机数
+    private static final long[] sides = new long[3];
+
+    static {
+        long state = SEED;
+        for (int chess = 1; chess < 3; chess++) {
+            for (int i = 0; i < keys[chess].length; i++) {
+                state += 0x9E3779B97F4A7C15L;
+                keys[chess][i] = mix(state);
+            }
+            state += 0x9E3779B97F4A7C15L;
+            sides[chess] = mix(state);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    //SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 指定位置指定棋子对应的随机数
+     *
+     * @param chess 棋子颜色
+     * @param index 位置（x * size + y）
+     * @return 随机数
+     */
+    public static long key(int chess, int index) {
+        return keys[chess][index];
+    }
+
+    //轮到指定一方落子对应的随机数
+    public static long side(int chess) {
+        return sides[chess];
+    }
+}
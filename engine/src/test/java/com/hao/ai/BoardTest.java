@@ -0,0 +1,265 @@
+package com.hao.ai;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 位棋盘与逐格遍历chessArray的结果对比
+ */
+public class BoardTest {
+    private static final int SIZE = 15;
+
+    //随机局面，每个位置有density的概率放一个随机颜色的棋子
+    static int[][] randomArray(Random random, int size, double density) {
+        int[][] chessArray = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (random.nextDouble() < density) {
+                    chessArray[i][j] = random.nextBoolean() ? Chess.WHITE : Chess.BLACK;
+                }
+            }
+        }
+        return chessArray;
+    }
+
+    //逐格数出经过(x, y)的一条线上最长的连子
+    private static int longestRun(int[][] chessArray, int x, int y, int direction, int chess) {
+        int size = chessArray.length;
+        int dx = Board.DX[direction];
+        int dy = Board.DY[direction];
+        //退到线的起点
+        while (x - dx >= 0 && x - dx < size && y - dy >= 0 && y - dy < size) {
+            x -= dx;
+            y -= dy;
+        }
+        int longest = 0;
+        int run = 0;
+        for (; x >= 0 && x < size && y >= 0 && y < size; x += dx, y += dy) {
+            run = chessArray[x][y] == chess ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    @Test
+    public void isFive_matchesCellScan() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            int[][] chessArray = randomArray(random, SIZE, 0.6);
+            Board board = Board.fromArray(chessArray);
+            for (int chess = 1; chess < 3; chess++) {
+                boolean anyFive = false;
+                for (int i = 0; i < SIZE; i++) {
+                    for (int j = 0; j < SIZE; j++) {
+                        boolean five = false;
+                        for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+                            five |= longestRun(chessArray, i, j, direction, chess) >= 5;
+                        }
+                        assertEquals(five, board.isFive(i, j, chess));
+                        anyFive |= five;
+                    }
+                }
+                assertEquals(anyFive, board.hasFive(chess));
+            }
+        }
+    }
+
+    @Test
+    public void isFiveOnArray_countsRunThroughCell() {
+        int[][] chessArray = new int[SIZE][SIZE];
+        //斜线上的五连，另一条斜线上隔开的四子
+        for (int i = 0; i < 5; i++) {
+            chessArray[3 + i][10 - i] = Chess.BLACK;
+        }
+        for (int i = 0; i < 5; i++) {
+            chessArray[i][i] = i == 2 ? Chess.WHITE : Chess.BLACK;
+        }
+        for (int i = 0; i < 5; i++) {
+            assertTrue(Board.isFive(chessArray, 3 + i, 10 - i));
+        }
+        assertFalse(Board.isFive(chessArray, 0, 0));
+        assertFalse(Board.isFive(chessArray, 4, 4));
+        //同一条线上的五连不经过(x, y)时不算
+        chessArray[10][3] = Chess.BLACK;
+        assertFalse(Board.isFive(chessArray, 10, 3));
+    }
+
+    @Test
+    public void lines_matchCells() {
+        Random random = new Random(2);
+        int[][] chessArray = randomArray(random, SIZE, 0.5);
+        Board board = Board.fromArray(chessArray);
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+                    int bit = 1 << board.bitIndex(direction, i, j);
+                    for (int chess = 1; chess < 3; chess++) {
+                        assertEquals(chessArray[i][j] == chess, (board.getLine(chess, direction, i, j) & bit) != 0);
+                        assertEquals(chessArray[i][j] == Board.opposite(chess),
+                                (board.getBlocked(chess, direction, i, j) & bit) != 0);
+                    }
+                }
+            }
+        }
+        //斜线两端以外的位置被堵住
+        assertTrue((board.getBlocked(Chess.WHITE, Board.LEFT_SLASH, 0, SIZE - 1) & 1 << 1) != 0);
+        assertTrue((board.getBlocked(Chess.WHITE, Board.RIGHT_SLASH, 0, 0) & 1 << 1) != 0);
+    }
+
+    @Test
+    public void loadAndCopyTo_roundTrip() {
+        Random random = new Random(3);
+        int[][] chessArray = randomArray(random, SIZE, 0.4);
+        Board board = Board.fromArray(chessArray);
+        int[][] copy = new int[SIZE][SIZE];
+        board.copyTo(copy);
+        assertArrayEquals(chessArray, copy);
+        int stones = 0;
+        for (int[] column : chessArray) {
+            for (int chess : column) {
+                if (chess != Chess.NONE) {
+                    stones++;
+                }
+            }
+        }
+        assertEquals(stones, board.getStoneCount());
+    }
+
+    @Test
+    public void sync_matchesLoad() {
+        Random random = new Random(4);
+        Board board = new Board(SIZE);
+        for (int round = 0; round < 50; round++) {
+            int[][] chessArray = randomArray(random, SIZE, 0.3);
+            board.sync(chessArray);
+            Board loaded = Board.fromArray(chessArray);
+            assertEquals(loaded.getHash(), board.getHash());
+            assertEquals(loaded.getStoneCount(), board.getStoneCount());
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    assertEquals(chessArray[i][j], board.get(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void unmake_restoresBoard() {
+        Random random = new Random(5);
+        int[][] chessArray = randomArray(random, SIZE, 0.2);
+        Board board = Board.fromArray(chessArray);
+        long hash = board.getHash();
+        int stones = board.getStoneCount();
+        int[] moves = new int[30];
+        int count = 0;
+        int chess = Chess.WHITE;
+        while (count < moves.length) {
+            int move = random.nextInt(SIZE * SIZE);
+            if (board.isEmpty(move / SIZE, move % SIZE)) {
+                board.make(move, chess);
+                moves[count++] = move;
+                assertEquals(count, board.getMoveCount());
+                assertEquals(move, board.getMove(count - 1));
+                assertEquals(chess, board.getMoveChess(count - 1));
+                chess = Board.opposite(chess);
+            }
+        }
+        while (count > 0) {
+            assertEquals(moves[--count], board.unmake());
+        }
+        assertEquals(0, board.getMoveCount());
+        assertEquals(hash, board.getHash());
+        assertEquals(stones, board.getStoneCount());
+        int[][] copy = new int[SIZE][SIZE];
+        board.copyTo(copy);
+        assertArrayEquals(chessArray, copy);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unmake_withEmptyStackThrows() {
+        Board board = new Board(SIZE);
+        board.place(7, 7, Chess.WHITE);
+        board.unmake();
+    }
+
+    //对称变换后的chessArray
+    private static int[][] transformArray(Board board, int[][] chessArray, int symmetry) {
+        int size = chessArray.length;
+        int[][] transformed = new int[size][size];
+        for (int i = 0; i < size * size; i++) {
+            int index = board.transform(symmetry, i);
+            transformed[index / size][index % size] = chessArray[i / size][i % size];
+        }
+        return transformed;
+    }
+
+    @Test
+    public void hashes_matchRebuildAfterMakeAndUnmake() {
+        Random random = new Random(6);
+        Board board = Board.fromArray(randomArray(random, SIZE, 0.1));
+        int chess = Chess.WHITE;
+        for (int step = 0; step < 300; step++) {
+            int move = random.nextInt(SIZE * SIZE);
+            if (board.getMoveCount() > 0 && random.nextInt(3) == 0) {
+                board.unmake();
+            } else if (board.isEmpty(move / SIZE, move % SIZE)) {
+                board.make(move, chess);
+                chess = Board.opposite(chess);
+            }
+            int[][] chessArray = new int[SIZE][SIZE];
+            board.copyTo(chessArray);
+            Board rebuilt = Board.fromArray(chessArray);
+            for (int symmetry = 0; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+                assertEquals(rebuilt.getHash(symmetry), board.getHash(symmetry));
+            }
+        }
+    }
+
+    @Test
+    public void symmetryHash_isHashOfTransformedBoard() {
+        Random random = new Random(7);
+        int[][] chessArray = randomArray(random, SIZE, 0.3);
+        Board board = Board.fromArray(chessArray);
+        long canonical = board.getHash(board.getCanonicalSymmetry());
+        for (int symmetry = 0; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+            Board transformed = Board.fromArray(transformArray(board, chessArray, symmetry));
+            assertEquals(board.getHash(symmetry), transformed.getHash());
+            //互相对称的局面标准哈希相同
+            assertEquals(canonical, transformed.getHash(transformed.getCanonicalSymmetry()));
+            for (int i = 0; i < SIZE * SIZE; i++) {
+                assertEquals(i, board.inverseTransform(symmetry, board.transform(symmetry, i)));
+            }
+        }
+    }
+
+    @Test
+    public void symmetryMask() {
+        Board board = new Board(SIZE);
+        assertEquals(0xFF, board.getSymmetryMask());
+        board.place(SIZE / 2, SIZE / 2, Chess.WHITE);
+        assertEquals(0xFF, board.getSymmetryMask());
+        //同一行相邻的两个棋子：只有x翻转（变换1）后不变
+        board.place(SIZE / 2, SIZE / 2 + 1, Chess.BLACK);
+        assertEquals(1 | 1 << 1, board.getSymmetryMask());
+        board.place(0, 3, Chess.BLACK);
+        assertEquals(1, board.getSymmetryMask());
+    }
+
+    @Test
+    public void clear_emptiesBoardAndMoveStack() {
+        Board board = new Board(SIZE);
+        board.make(7 * SIZE + 7, Chess.WHITE);
+        board.make(7 * SIZE + 8, Chess.BLACK);
+        board.clear();
+        assertEquals(0, board.getMoveCount());
+        assertEquals(0, board.getStoneCount());
+        assertEquals(0, board.getHash());
+        assertFalse(board.hasFive(Chess.WHITE));
+    }
+}
@@ -0,0 +1,107 @@
+package com.hao.ai;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 增量评分与整个棋盘重新计算的结果对比
+ */
+public class EvaluatorTest {
+    private static final int SIZE = 15;
+
+    //两个评分的所有空位、棋型数量以及局面评估都相同
+    private static void assertSameScores(Evaluator expected, Evaluator actual) {
+        for (int chess = 1; chess < 3; chess++) {
+            assertEquals(expected.evaluate(chess), actual.evaluate(chess));
+            for (int shape = PatternTable.DEAD; shape <= PatternTable.FIVE; shape++) {
+                assertEquals(expected.getShapeCount(chess, shape), actual.getShapeCount(chess, shape));
+            }
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    assertEquals(expected.getScore(chess, i, j), actual.getScore(chess, i, j));
+                    for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+                        assertEquals(expected.getCachedShape(i, j, chess, direction),
+                                actual.getCachedShape(i, j, chess, direction));
+                    }
+                }
+            }
+        }
+    }
+
+    //按board当前局面新建的评分（整体计算）
+    private static Evaluator rebuild(Board board) {
+        int[][] chessArray = new int[SIZE][SIZE];
+        board.copyTo(chessArray);
+        return new Evaluator(Board.fromArray(chessArray));
+    }
+
+    @Test
+    public void makeAndUnmake_matchRebuild() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            Board board = Board.fromArray(BoardTest.randomArray(random, SIZE, 0.1));
+            Evaluator evaluator = new Evaluator(board);
+            int chess = Chess.WHITE;
+            for (int step = 0; step < 60; step++) {
+                int move = random.nextInt(SIZE * SIZE);
+                if (board.getMoveCount() > 0 && random.nextInt(3) == 0) {
+                    board.unmake();
+                } else if (board.isEmpty(move / SIZE, move % SIZE)) {
+                    board.make(move, chess);
+                    chess = Board.opposite(chess);
+                }
+                if (step % 10 == 0) {
+                    assertSameScores(rebuild(board), evaluator);
+                }
+            }
+            assertSameScores(rebuild(board), evaluator);
+        }
+    }
+
+    @Test
+    public void sync_matchesRebuild() {
+        Random random = new Random(12);
+        Board board = new Board(SIZE);
+        Evaluator evaluator = new Evaluator(board);
+        for (int round = 0; round < 20; round++) {
+            board.sync(BoardTest.randomArray(random, SIZE, 0.3));
+            assertSameScores(rebuild(board), evaluator);
+        }
+    }
+
+    @Test
+    public void cachedShape_matchesWindowLookup() {
+        Random random = new Random(13);
+        Board board = Board.fromArray(BoardTest.randomArray(random, SIZE, 0.3));
+        Evaluator evaluator = new Evaluator(board);
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                for (int chess = 1; chess < 3; chess++) {
+                    for (int direction = 0; direction < Board.DIRECTION_COUNT; direction++) {
+                        int expected = board.isEmpty(i, j) ? evaluator.getShape(i, j, chess, direction)
+                                : Evaluator.OCCUPIED;
+                        assertEquals(expected, evaluator.getCachedShape(i, j, chess, direction));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void openFour_isScoredAsLiveFour() {
+        Board board = new Board(SIZE);
+        Evaluator evaluator = new Evaluator(board);
+        for (int y = 5; y < 8; y++) {
+            board.place(7, y, Chess.WHITE);
+        }
+        //_XXX_ 两端落子都是活四
+        assertEquals(PatternTable.LIVE_FOUR, evaluator.getBestShape(Chess.WHITE, 7, 4));
+        assertEquals(PatternTable.LIVE_FOUR, evaluator.getBestShape(Chess.WHITE, 7, 8));
+        board.place(7, 4, Chess.BLACK);
+        assertEquals(PatternTable.DEAD_FOUR, evaluator.getBestShape(Chess.WHITE, 7, 8));
+        assertEquals(Evaluator.OCCUPIED, evaluator.getBestShape(Chess.WHITE, 7, 4));
+    }
+}
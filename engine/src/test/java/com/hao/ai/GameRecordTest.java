@@ -0,0 +1,125 @@
+package com.hao.ai;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 对局记录文件的写入、读取与文本记谱
+ */
+public class GameRecordTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void writeGames(File file, int count) throws IOException {
+        GameRecordWriter writer = new GameRecordWriter(file);
+        try {
+            for (int i = 0; i < count; i++) {
+                writer.write(15, Chess.WHITE, new int[]{112, 113, 127 + i}, 3, GameRecordReader.RESULT_UNFINISHED);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static int countGames(File file) throws IOException {
+        GameRecordReader reader = new GameRecordReader(file);
+        try {
+            while (reader.next()) {
+                assertEquals(112, reader.getMove(0));
+            }
+            return (int) reader.getGameCount();
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        File file = folder.newFile();
+        GameRecordWriter writer = new GameRecordWriter(file);
+        writer.write(15, Chess.BLACK, new int[]{112, 113, 127}, 3, Chess.BLACK);
+        writer.write(20, Chess.WHITE, new int[]{399, 0}, 2, GameRecordReader.RESULT_DRAW);
+        writer.close();
+        GameRecordReader reader = new GameRecordReader(file);
+        assertTrue(reader.next());
+        assertEquals(15, reader.getSize());
+        assertEquals(Chess.BLACK, reader.getFirstChess());
+        assertEquals(3, reader.getMoveCount());
+        assertEquals(127, reader.getMove(2));
+        assertEquals(Chess.WHITE, reader.getMoveChess(1));
+        assertEquals(Chess.BLACK, reader.getResult());
+        assertTrue(reader.next());
+        assertEquals(20, reader.getSize());
+        assertEquals(399, reader.getMove(0));
+        assertEquals(GameRecordReader.RESULT_DRAW, reader.getResult());
+        assertFalse(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void open_truncatesIncompleteLastGame() throws IOException {
+        File file = folder.newFile();
+        writeGames(file, 3);
+        long length = file.length();
+        //模拟写入中断：最后一局只写了一部分
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(length - 2);
+        raf.close();
+        assertEquals(2, countGames(file));
+        //新的对局接在最后一个完整的对局之后
+        writeGames(file, 2);
+        assertEquals(4, countGames(file));
+        assertEquals(GameRecordReader.HEADER_SIZE + 4 * 8, file.length());
+    }
+
+    @Test
+    public void open_rewritesIncompleteHeader() throws IOException {
+        File file = folder.newFile();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.writeInt(GameRecordReader.MAGIC);
+        raf.close();
+        writeGames(file, 1);
+        assertEquals(1, countGames(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void open_rejectsOtherFiles() throws IOException {
+        File file = folder.newFile();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.writeLong(0x0123456789ABCDEFL);
+        raf.close();
+        new GameRecordWriter(file).close();
+    }
+
+    @Test
+    public void notation_roundTripKeepsFirstChess() throws IOException {
+        File file = folder.newFile();
+        GameRecordWriter writer = new GameRecordWriter(file);
+        GameNotation.parse("15 b h8 i9 h9 0-1", writer);
+        GameNotation.parse("15 w 7,7 8,8 1/2-1/2", writer);
+        //省略先手颜色时按白棋先手
+        GameNotation.parse("15 h8 *", writer);
+        writer.close();
+        GameRecordReader reader = new GameRecordReader(file);
+        assertTrue(reader.next());
+        assertEquals(Chess.BLACK, reader.getFirstChess());
+        assertEquals(Chess.WHITE, reader.getResult());
+        assertEquals(GameNotation.parseMove("h8", 15), reader.getMove(0));
+        assertEquals("15 b h8 i9 h9 0-1", GameNotation.format(reader, GameNotation.ALGEBRAIC));
+        assertTrue(reader.next());
+        assertEquals("15 w 7,7 8,8 1/2-1/2", GameNotation.format(reader, GameNotation.COORDINATE));
+        assertTrue(reader.next());
+        assertEquals(Chess.WHITE, reader.getFirstChess());
+        assertEquals("15 w h8 *", GameNotation.format(reader, GameNotation.ALGEBRAIC));
+        reader.close();
+    }
+}
@@ -0,0 +1,122 @@
+package com.hao.ai;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 候选落点bitset的增量更新与强制应对模式
+ */
+public class MoveGeneratorTest {
+    private static final int SIZE = 15;
+
+    //逐格计算：距离2以内有棋子的空位
+    private static int[] expectedCandidates(Board board) {
+        int[] list = new int[SIZE * SIZE];
+        int count = 0;
+        int d = MoveGenerator.DISTANCE;
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                if (!board.isEmpty(i, j)) {
+                    continue;
+                }
+                boolean isNear = false;
+                for (int x = Math.max(0, i - d); x <= Math.min(SIZE - 1, i + d); x++) {
+                    for (int y = Math.max(0, j - d); y <= Math.min(SIZE - 1, j + d); y++) {
+                        isNear |= !board.isEmpty(x, y);
+                    }
+                }
+                if (isNear) {
+                    list[count++] = i * SIZE + j;
+                }
+            }
+        }
+        return Arrays.copyOf(list, count);
+    }
+
+    private static int[] candidates(MoveGenerator generator) {
+        int[] list = new int[SIZE * SIZE];
+        return Arrays.copyOf(list, generator.getCandidates(list));
+    }
+
+    @Test
+    public void candidates_matchCellScanAfterMakeAndUnmake() {
+        Random random = new Random(21);
+        Board board = new Board(SIZE);
+        MoveGenerator generator = new MoveGenerator(board, new Evaluator(board));
+        int chess = Chess.WHITE;
+        for (int step = 0; step < 500; step++) {
+            int move = random.nextInt(SIZE * SIZE);
+            if (board.getMoveCount() > 0 && random.nextInt(3) == 0) {
+                board.unmake();
+            } else if (board.isEmpty(move / SIZE, move % SIZE)) {
+                board.make(move, chess);
+                chess = Board.opposite(chess);
+            }
+            int[] expected = expectedCandidates(board);
+            assertArrayEquals(expected, candidates(generator));
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    assertEquals(Arrays.binarySearch(expected, i * SIZE + j) >= 0, generator.isCandidate(i, j));
+                }
+            }
+        }
+        //全部撤销后没有候选落点
+        while (board.getMoveCount() > 0) {
+            board.unmake();
+        }
+        assertEquals(0, candidates(generator).length);
+    }
+
+    @Test
+    public void reset_matchesCellScan() {
+        Random random = new Random(22);
+        Board board = new Board(SIZE);
+        MoveGenerator generator = new MoveGenerator(board, new Evaluator(board));
+        for (int round = 0; round < 20; round++) {
+            board.load(BoardTest.randomArray(random, SIZE, 0.05));
+            assertArrayEquals(expectedCandidates(board), candidates(generator));
+        }
+    }
+
+    @Test
+    public void generate_blocksOpponentFive() {
+        Board board = new Board(SIZE);
+        MoveGenerator generator = new MoveGenerator(board, new Evaluator(board));
+        //白棋冲四 XXXX 左端被堵
+        board.place(7, 3, Chess.BLACK);
+        for (int y = 4; y < 8; y++) {
+            board.place(7, y, Chess.WHITE);
+        }
+        board.place(3, 3, Chess.BLACK);
+        int[] list = new int[SIZE * SIZE];
+        int count = generator.generate(Chess.BLACK, list);
+        assertEquals(1, count);
+        assertEquals(7 * SIZE + 8, list[0]);
+        //轮到白棋时只返回五连的落点
+        count = generator.generate(Chess.WHITE, list);
+        assertEquals(1, count);
+        assertEquals(7 * SIZE + 8, list[0]);
+    }
+
+    @Test
+    public void generate_answersOpenThree() {
+        Board board = new Board(SIZE);
+        MoveGenerator generator = new MoveGenerator(board, new Evaluator(board));
+        //白棋活三 .XXX.
+        for (int y = 6; y < 9; y++) {
+            board.place(7, y, Chess.WHITE);
+        }
+        board.place(10, 10, Chess.BLACK);
+        int[] list = new int[SIZE * SIZE];
+        int count = generator.generate(Chess.BLACK, list);
+        int[] moves = Arrays.copyOf(list, count);
+        Arrays.sort(moves);
+        //挡在两端或者隔一格的位置（能使白棋成为活四、冲四的落点）
+        assertArrayEquals(new int[]{7 * SIZE + 4, 7 * SIZE + 5, 7 * SIZE + 9, 7 * SIZE + 10}, moves);
+    }
+}
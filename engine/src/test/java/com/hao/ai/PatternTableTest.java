@@ -0,0 +1,93 @@
+package com.hao.ai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 棋型表的分类，包括跳子棋型
+ */
+public class PatternTableTest {
+
+    /**
+     * 9格窗口的棋型，中心（第5格）为落子的位置
+     *
+     * @param window 9个字符：X 己方棋子，O 被堵住，. 空位，+ 中心
+     * @return 棋型
+     */
+    private static int shape(String window) {
+        assertEquals(9, window.length());
+        assertEquals('+', window.charAt(PatternTable.HALF));
+        int own = 0;
+        int blocked = 0;
+        for (int i = 0; i < window.length(); i++) {
+            if (window.charAt(i) == 'X') {
+                own |= 1 << i;
+            } else if (window.charAt(i) == 'O') {
+                blocked |= 1 << i;
+            }
+        }
+        return PatternTable.getShape(own, blocked);
+    }
+
+    @Test
+    public void five() {
+        assertEquals(PatternTable.FIVE, shape("..XX+XX.."));
+        assertEquals(PatternTable.FIVE, shape("XXXX+...."));
+        assertEquals(PatternTable.FIVE, shape("OXXX+XO.."));
+        //长连也算五连
+        assertEquals(PatternTable.FIVE, shape("...X+XXXX"));
+    }
+
+    @Test
+    public void fours() {
+        assertEquals(PatternTable.LIVE_FOUR, shape("...X+XX.."));
+        assertEquals(PatternTable.LIVE_FOUR, shape("..XX+X..."));
+        assertEquals(PatternTable.DEAD_FOUR, shape("..OX+XX.."));
+        assertEquals(PatternTable.DEAD_FOUR, shape("OXXX+...."));
+        //跳四 X.XXX、XX.XX
+        assertEquals(PatternTable.DEAD_FOUR, shape("X.XX+...."));
+        assertEquals(PatternTable.DEAD_FOUR, shape("..XX+.XX."));
+        assertEquals(PatternTable.DEAD_FOUR, shape("...X+.XX."));
+        //XX.X.XX 两边各能成五
+        assertEquals(PatternTable.LIVE_FOUR, shape("XX.X+.XX."));
+    }
+
+    @Test
+    public void threes() {
+        assertEquals(PatternTable.LIVE_THREE, shape("..XX+...."));
+        assertEquals(PatternTable.LIVE_THREE, shape("...X+X..."));
+        //跳三 .X.XX.
+        assertEquals(PatternTable.LIVE_THREE, shape("..X.+X..."));
+        assertEquals(PatternTable.LIVE_THREE, shape("...X+.X.."));
+        assertEquals(PatternTable.DEAD_THREE, shape(".OXX+...."));
+        assertEquals(PatternTable.DEAD_THREE, shape("..OX+X..."));
+        //一边被堵的跳三 OX.XX.
+        assertEquals(PatternTable.DEAD_THREE, shape(".OX.+X..."));
+        //两端都被堵但中间有两个空位，仍然能冲四
+        assertEquals(PatternTable.DEAD_THREE, shape("OX.X+.O.."));
+    }
+
+    @Test
+    public void twosAndOnes() {
+        assertEquals(PatternTable.LIVE_TWO, shape("...X+...."));
+        assertEquals(PatternTable.LIVE_TWO, shape("..X.+...."));
+        assertEquals(PatternTable.DEAD_TWO, shape("..OX+...."));
+        assertEquals(PatternTable.LIVE_ONE, shape("....+...."));
+        assertEquals(PatternTable.DEAD_ONE, shape("...O+...."));
+    }
+
+    @Test
+    public void noRoomForFive() {
+        assertEquals(PatternTable.DEAD, shape(".OXX+O..."));
+        assertEquals(PatternTable.DEAD, shape("...O+...O"));
+        assertEquals(PatternTable.DEAD, shape("OOOO+.OOO"));
+    }
+
+    @Test
+    public void cellsOutsideFiveCellReach_doNotMatter() {
+        //窗口两端的格子只在能与中心组成五格时起作用
+        assertEquals(shape("...X+X..."), shape("O..X+X..O"));
+        assertEquals(shape("...X+X..."), shape("X..X+X..X"));
+    }
+}
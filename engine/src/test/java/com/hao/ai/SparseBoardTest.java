@@ -0,0 +1,135 @@
+package com.hao.ai;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 无限棋盘与哈希表对比，以及窗口引擎的窗口位置
+ */
+public class SparseBoardTest {
+    @Test
+    public void placeAndRemove_matchMap() {
+        Random random = new Random(31);
+        SparseBoard board = new SparseBoard();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 3000; step++) {
+            int x = random.nextInt(41) - 20;
+            int y = random.nextInt(41) - 20;
+            long key = (long) x << 32 | (y & 0xFFFFFFFFL);
+            if (expected.containsKey(key)) {
+                board.remove(x, y);
+                expected.remove(key);
+            } else {
+                int chess = random.nextBoolean() ? Chess.WHITE : Chess.BLACK;
+                board.place(x, y, chess);
+                expected.put(key, chess);
+            }
+            assertEquals(expected.size(), board.getStoneCount());
+            if (step % 100 == 0) {
+                for (int i = -20; i <= 20; i++) {
+                    for (int j = -20; j <= 20; j++) {
+                        Integer chess = expected.get((long) i << 32 | (j & 0xFFFFFFFFL));
+                        assertEquals(chess == null ? Chess.NONE : chess, board.get(i, j));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void remove_shrinksBounds() {
+        SparseBoard board = new SparseBoard();
+        board.place(0, 0, Chess.WHITE);
+        board.place(3, -2, Chess.BLACK);
+        board.place(-40, 50, Chess.WHITE);
+        assertEquals(-40, board.getMinX());
+        assertEquals(50, board.getMaxY());
+        board.remove(-40, 50);
+        assertEquals(0, board.getMinX());
+        assertEquals(3, board.getMaxX());
+        assertEquals(-2, board.getMinY());
+        assertEquals(0, board.getMaxY());
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        SparseBoard board = new SparseBoard();
+        for (int i = 0; i < 100; i++) {
+            board.place(i, -i, i % 2 == 0 ? Chess.WHITE : Chess.BLACK);
+        }
+        SparseBoard copy = board.copy();
+        board.clear();
+        board.place(5, 5, Chess.BLACK);
+        assertEquals(100, copy.getStoneCount());
+        assertEquals(Chess.BLACK, copy.get(99, -99));
+        assertEquals(Chess.NONE, copy.get(5, 5));
+        assertEquals(99, copy.getMaxX());
+    }
+
+    @Test
+    public void unboundedEngine_keepsDistantThreatInWindow() {
+        SparseBoard board = new SparseBoard();
+        //白棋远处的活三，最后一步白棋下在原点附近
+        board.place(100, 0, Chess.WHITE);
+        board.place(101, 0, Chess.WHITE);
+        board.place(102, 0, Chess.WHITE);
+        board.place(50, 50, Chess.BLACK);
+        board.place(-50, 3, Chess.BLACK);
+        board.place(1, 1, Chess.BLACK);
+        board.place(0, 0, Chess.WHITE);
+        UnboundedEngine engine = new UnboundedEngine();
+        engine.getEngine().setThreadCount(1);
+        engine.getEngine().setTimeLimit(0);
+        engine.getEngine().setNodeLimit(2000);
+        Point point = engine.select(board, Chess.BLACK);
+        engine.shutdown();
+        //挡住活三
+        assertEquals(0, point.getY());
+        assertTrue(point.getX() == 98 || point.getX() == 99 || point.getX() == 103 || point.getX() == 104);
+    }
+
+    @Test
+    public void unboundedEngine_winsWithFourFarFromWindow() {
+        SparseBoard board = new SparseBoard();
+        //白棋在40格以外的冲四，原点附近黑棋的两个活三使窗口留在原点附近
+        board.place(39, 0, Chess.BLACK);
+        for (int x = 40; x < 44; x++) {
+            board.place(x, 0, Chess.WHITE);
+        }
+        for (int x = 0; x < 3; x++) {
+            board.place(x, 0, Chess.BLACK);
+            board.place(x, 5, Chess.BLACK);
+        }
+        UnboundedEngine engine = new UnboundedEngine(1);
+        Point point = engine.select(board, Chess.WHITE);
+        engine.shutdown();
+        assertEquals(44, point.getX());
+        assertEquals(0, point.getY());
+    }
+
+    @Test
+    public void unboundedEngine_blocksOpenThreeOutsideWindow() {
+        SparseBoard board = new SparseBoard();
+        //白棋的两个眠三使窗口留在原点附近，黑棋的活三在60格以外
+        board.place(0, -1, Chess.BLACK);
+        board.place(5, -1, Chess.BLACK);
+        for (int y = 0; y < 3; y++) {
+            board.place(0, y, Chess.WHITE);
+            board.place(5, y, Chess.WHITE);
+        }
+        board.place(60, 0, Chess.BLACK);
+        board.place(62, 0, Chess.BLACK);
+        board.place(61, 0, Chess.BLACK);
+        UnboundedEngine engine = new UnboundedEngine(1);
+        Point point = engine.select(board, Chess.WHITE);
+        engine.shutdown();
+        assertEquals(0, point.getY());
+        assertTrue(point.getX() == 59 || point.getX() == 63);
+    }
+}
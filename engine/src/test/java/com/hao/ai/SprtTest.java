@@ -0,0 +1,69 @@
+package com.hao.ai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SPRT的结论，包括全胜、全负这类方差为0的情况
+ */
+public class SprtTest {
+
+    private static Sprt play(int wins, int draws, int losses) {
+        Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+        for (int i = 0; i < wins; i++) {
+            sprt.add(1);
+        }
+        for (int i = 0; i < draws; i++) {
+            sprt.add(0.5);
+        }
+        for (int i = 0; i < losses; i++) {
+            sprt.add(0);
+        }
+        return sprt;
+    }
+
+    @Test
+    public void noGames_continues() {
+        Sprt sprt = play(0, 0, 0);
+        assertEquals(0, sprt.getLlr(), 0);
+        assertEquals(Sprt.CONTINUE, sprt.getResult());
+    }
+
+    @Test
+    public void allWins_acceptsH1() {
+        Sprt sprt = play(500, 0, 0);
+        assertTrue(sprt.getLlr() >= sprt.getUpperBound());
+        assertEquals(Sprt.ACCEPT_H1, sprt.getResult());
+        //几局全胜还不够得出结论
+        assertEquals(Sprt.CONTINUE, play(3, 0, 0).getResult());
+    }
+
+    @Test
+    public void allLosses_acceptsH0() {
+        Sprt sprt = play(0, 0, 500);
+        assertTrue(sprt.getLlr() <= sprt.getLowerBound());
+        assertEquals(Sprt.ACCEPT_H0, sprt.getResult());
+        assertEquals(Sprt.CONTINUE, play(0, 0, 3).getResult());
+    }
+
+    @Test
+    public void allDraws_acceptsH0() {
+        //和棋多得分为0.5，不比H1的期望得分高
+        assertEquals(Sprt.ACCEPT_H0, play(0, 2000, 0).getResult());
+    }
+
+    @Test
+    public void evenResults_continueThenAcceptH0() {
+        assertEquals(Sprt.CONTINUE, play(20, 10, 20).getResult());
+        assertEquals(Sprt.ACCEPT_H0, play(4000, 2000, 4000).getResult());
+    }
+
+    @Test
+    public void clearlyStronger_acceptsH1() {
+        Sprt sprt = play(600, 200, 400);
+        assertEquals(Sprt.ACCEPT_H1, sprt.getResult());
+        assertTrue(sprt.getElo() > 50);
+    }
+}
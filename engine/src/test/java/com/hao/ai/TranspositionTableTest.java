@@ -0,0 +1,77 @@
+package com.hao.ai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 置换表的存取与替换策略
+ * 大小为0时只有一个桶（两个条目），所有局面落在同一个桶里
+ */
+public class TranspositionTableTest {
+    private static final long A = 0x1234567890ABCDEFL;
+    private static final long B = 0x0FEDCBA987654321L;
+    private static final long C = 0x1111111111111111L;
+
+    @Test
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(A, 112, -350, 6, TranspositionTable.LOWER);
+        long data = table.probe(A);
+        assertEquals(112, TranspositionTable.getMove(data));
+        assertEquals(-350, TranspositionTable.getScore(data));
+        assertEquals(6, TranspositionTable.getDepth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.getFlag(data));
+        assertEquals(TranspositionTable.MISS, table.probe(B));
+        table.store(B, -1, 0, 0, TranspositionTable.EXACT);
+        assertEquals(-1, TranspositionTable.getMove(table.probe(B)));
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(A));
+    }
+
+    @Test
+    public void sameKey_usesOneEntry() {
+        TranspositionTable table = new TranspositionTable(0);
+        assertEquals(2, table.getCapacity());
+        table.store(A, 1, 10, 5, TranspositionTable.EXACT);
+        table.store(B, 2, 20, 3, TranspositionTable.EXACT);
+        //B再次存入时覆盖自己的条目，A仍然保留
+        table.store(B, 3, 30, 4, TranspositionTable.EXACT);
+        assertEquals(4, TranspositionTable.getDepth(table.probe(B)));
+        assertEquals(5, TranspositionTable.getDepth(table.probe(A)));
+        table.store(A, 4, 40, 7, TranspositionTable.EXACT);
+        assertEquals(7, TranspositionTable.getDepth(table.probe(A)));
+        assertEquals(4, TranspositionTable.getDepth(table.probe(B)));
+    }
+
+    @Test
+    public void shallowerResult_doesNotOverwriteSameSearch() {
+        TranspositionTable table = new TranspositionTable(0);
+        table.store(A, 1, 10, 8, TranspositionTable.EXACT);
+        table.store(A, 2, 20, 3, TranspositionTable.EXACT);
+        assertEquals(8, TranspositionTable.getDepth(table.probe(A)));
+        //新的搜索中可以覆盖
+        table.newSearch();
+        table.store(A, 2, 20, 3, TranspositionTable.EXACT);
+        assertEquals(3, TranspositionTable.getDepth(table.probe(A)));
+    }
+
+    @Test
+    public void replacement_prefersOldThenShallowEntries() {
+        TranspositionTable table = new TranspositionTable(0);
+        table.store(A, 1, 10, 8, TranspositionTable.EXACT);
+        table.store(B, 2, 20, 2, TranspositionTable.EXACT);
+        //桶满时替换较浅的B
+        table.store(C, 3, 30, 5, TranspositionTable.EXACT);
+        assertEquals(TranspositionTable.MISS, table.probe(B));
+        assertEquals(8, TranspositionTable.getDepth(table.probe(A)));
+        assertEquals(5, TranspositionTable.getDepth(table.probe(C)));
+        //新的搜索中先替换旧搜索留下的条目，即使它更深
+        table.newSearch();
+        table.store(C, 3, 30, 1, TranspositionTable.EXACT);
+        table.store(B, 2, 20, 1, TranspositionTable.EXACT);
+        assertEquals(TranspositionTable.MISS, table.probe(A));
+        assertEquals(1, TranspositionTable.getDepth(table.probe(B)));
+        assertEquals(1, TranspositionTable.getDepth(table.probe(C)));
+    }
+}
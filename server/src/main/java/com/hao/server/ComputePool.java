@@ -0,0 +1,151 @@
+package com.hao.server;
+
+import com.hao.ai.Engine;
+import com.hao.ai.Point;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享的AI计算池
+ * 固定数量的工作线程，每个持有自己的单线程Engine（置换表在不同会话之间复用）。
+ * 请求进入公平的有界队列，按到达顺序处理；队列满时提交方等待一段时间，仍然满则拒绝，
+ * 把压力反馈给会话而不是无限堆积。shutdown之后排队中的请求失败，新的请求被拒绝
+ */
+
+public class ComputePool {
+    //等待计算的请求
+    private final BlockingQueue<Task> queue;
+    //工作线程
+    private final Thread[] workers;
+    //每步节点数
+    private final long nodeLimit;
+    //队列满时最多等待的时间（毫秒）
+    private final long offerTimeout;
+    //是否已经关闭
+    private volatile boolean isShutdown;
+
+    /**
+     * @param workerCount   工作线程数
+     * @param queueCapacity 队列长度
+     * @param nodeLimit     每步节点数
+     * @param offerTimeout  队列满时最多等待的时间（毫秒）
+     */
+    public ComputePool(int workerCount, int queueCapacity, long nodeLimit, long offerTimeout) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity, true);
+        this.nodeLimit = nodeLimit;
+        this.offerTimeout = offerTimeout;
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "compute-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * 计算一步，阻塞直到得到结果
+     *
+     * @param chessArray 棋盘（计算期间调用方不能修改）
+     * @param chess      落子一方
+     * @return 落点，棋盘已满时返回null
+     * @throws RejectedExecutionException 队列已满或者已经关闭
+     */
+    public Point compute(int[][] chessArray, int chess) throws InterruptedException {
+        if (isShutdown) {
+            throw new RejectedExecutionException("compute pool is shut down");
+        }
+        Task task = new Task(chessArray, chess);
+        if (!queue.offer(task, offerTimeout, TimeUnit.MILLISECONDS)) {
+            throw new RejectedExecutionException("compute pool is full");
+        }
+        //与shutdown同时进行时，shutdown可能已经清空过队列
+        if (isShutdown) {
+            failQueued();
+        }
+        try {
+            return task.result.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //工作线程：依次取出请求，同步到自己的引擎后计算
+    private void work() {
+        //每种棋盘大小一个引擎
+        Map<Integer, Engine> engines = new HashMap<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                int size = task.chessArray.length;
+                Engine engine = engines.get(size);
+                if (engine == null) {
+                    engine = new Engine(size);
+                    engine.setThreadCount(1);
+                    engine.setTimeLimit(0);
+                    engine.setNodeLimit(nodeLimit);
+                    engines.put(size, engine);
+                }
+                engine.getBoard().sync(task.chessArray);
+                task.result.complete(engine.select(task.chess));
+            } catch (RuntimeException e) {
+                task.result.completeExceptionally(e);
+            } finally {
+                //Error（如OutOfMemoryError）结束了工作线程时，不让提交方一直等待
+                if (!task.result.isDone()) {
+                    task.result.completeExceptionally(new IllegalStateException("compute worker died"));
+                }
+            }
+        }
+    }
+
+    //排队中的请求数
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    //关闭：停止工作线程，排队中的请求以异常结束，不让提交方一直等待
+    public void shutdown() {
+        isShutdown = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        failQueued();
+    }
+
+    //取出排队中的请求并以异常结束
+    private void failQueued() {
+        Task task;
+        while ((task = queue.poll()) != null) {
+            task.result.completeExceptionally(new RejectedExecutionException("compute pool is shut down"));
+        }
+    }
+
+    //一次计算请求
+    private static class Task {
+        final int[][] chessArray;
+        final int chess;
+        final CompletableFuture<Point> result = new CompletableFuture<>();
+
+        Task(int[][] chessArray, int chess) {
+            this.chessArray = chessArray;
+            this.chess = chess;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.hao.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多局对弈服务
+ * 每个连接是一局（GameSession），在各自的（虚拟）线程中处理；
+ * 所有会话的AI计算提交到同一个有界的计算池，每5秒输出一次吞吐量和延迟
+ * 用法：GameServer [端口] [计算线程数] [队列长度] [每步节点数]
+ */
+
+public class GameServer {
+    //默认端口
+    static final int DEFAULT_PORT = 6150;
+    //统计输出间隔（毫秒）
+    private static final long REPORT_INTERVAL = 5000;
+    //队列满时提交方最多等待的时间（毫秒）
+    private static final long OFFER_TIMEOUT = 1000;
+
+    private final ServerSocket serverSocket;
+    private final ComputePool pool;
+    private final Metrics metrics = new Metrics();
+    //会话线程
+    private final ExecutorService sessions = Threads.newPerTaskExecutor();
+    //当前连接数
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    public GameServer(int port, int workers, int queueCapacity, long nodeLimit) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        pool = new ComputePool(workers, queueCapacity, nodeLimit, OFFER_TIMEOUT);
+    }
+
+    //接受连接直到关闭
+    public void serve() {
+        Thread reporter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                report();
+            }
+        }, "metrics");
+        reporter.setDaemon(true);
+        reporter.start();
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                break;
+            }
+            activeSessions.incrementAndGet();
+            sessions.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        new GameSession(socket, pool, metrics).run();
+                    } finally {
+                        activeSessions.decrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    private void report() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Thread.sleep(REPORT_INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println("sessions " + activeSessions.get() + "  queued " + pool.getQueueSize()
+                    + "  " + metrics.report());
+        }
+    }
+
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+        pool.shutdown();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : workers * 64;
+        long nodeLimit = args.length > 3 ? Long.parseLong(args[3]) : 5000;
+        GameServer server = new GameServer(port, workers, queueCapacity, nodeLimit);
+        System.out.println("listening on " + server.getPort() + "  workers " + workers + "  queue " + queueCapacity
+                + "  nodes " + nodeLimit + "  virtual threads " + Threads.isVirtualAvailable());
+        server.serve();
+    }
+}
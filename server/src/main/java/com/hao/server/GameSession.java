@@ -0,0 +1,154 @@
+package com.hao.server;
+
+import com.hao.ai.Board;
+import com.hao.ai.Chess;
+import com.hao.ai.Point;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 一个连接上的对局
+ * 协议与Piskvork相同的一部分：START 宽高、BEGIN（AI先手）、TURN x,y（玩家落子）、END。
+ * AI落子回复 x,y，对局结束时再回复 END WIN（玩家胜）、END LOSE、END DRAW；
+ * 计算池已满时回复 ERROR busy，玩家的落子被撤销，可以重试；对局结束后只接受START（重新开局）。
+ * 会话只保存棋盘数组，不持有引擎，成千上万个会话也只占很少的内存
+ */
+
+class GameSession implements Runnable {
+    //玩家、AI的棋子
+    private static final int USER = Chess.BLACK;
+    private static final int AI = Chess.WHITE;
+
+    private final Socket socket;
+    private final ComputePool pool;
+    private final Metrics metrics;
+    //棋盘，START时创建
+    private int[][] chessArray;
+    //棋子数
+    private int stoneCount;
+    //对局是否已经结束（已回复END WIN、END LOSE或END DRAW）
+    private boolean isOver;
+
+    GameSession(Socket socket, ComputePool pool, Metrics metrics) {
+        this.socket = socket;
+        this.pool = pool;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void run() {
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8), true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.equalsIgnoreCase("END")) {
+                    break;
+                }
+                try {
+                    handle(line, out);
+                } catch (RuntimeException e) {
+                    out.println("ERROR " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            //连接断开
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                //忽略
+            }
+        }
+    }
+
+    private void handle(String line, PrintWriter out) throws InterruptedException {
+        String upper = line.toUpperCase();
+        if (upper.startsWith("START")) {
+            int size = Integer.parseInt(line.substring(5).trim());
+            if (size < 5 || size > 25) {
+                out.println("ERROR unsupported size " + size);
+                return;
+            }
+            chessArray = new int[size][size];
+            stoneCount = 0;
+            isOver = false;
+            out.println("OK");
+        } else if (chessArray == null) {
+            out.println("ERROR START first");
+        } else if (isOver && (upper.equals("BEGIN") || upper.startsWith("TURN"))) {
+            out.println("ERROR game over");
+        } else if (upper.equals("BEGIN")) {
+            aiMove(out);
+        } else if (upper.startsWith("TURN")) {
+            String[] fields = line.substring(4).trim().split(",");
+            int x = Integer.parseInt(fields[0].trim());
+            int y = Integer.parseInt(fields[1].trim());
+            if (x < 0 || y < 0 || x >= chessArray.length || y >= chessArray.length
+                    || chessArray[x][y] != Chess.NONE) {
+                out.println("ERROR illegal move " + x + "," + y);
+                return;
+            }
+            chessArray[x][y] = USER;
+            stoneCount++;
+            if (Board.isFive(chessArray, x, y)) {
+                isOver = true;
+                out.println("END WIN");
+            } else if (stoneCount == chessArray.length * chessArray.length) {
+                isOver = true;
+                out.println("END DRAW");
+            } else if (!aiMove(out)) {
+                //计算池已满，撤销玩家的落子
+                chessArray[x][y] = Chess.NONE;
+                stoneCount--;
+            }
+        } else {
+            out.println("UNKNOWN " + line);
+        }
+    }
+
+    /**
+     * AI落子并回复
+     *
+     * @return 是否已经落子（计算池已满时为false）
+     */
+    private boolean aiMove(PrintWriter out) throws InterruptedException {
+        long start = System.nanoTime();
+        Point point;
+        try {
+            point = pool.compute(chessArray, AI);
+        } catch (RejectedExecutionException e) {
+            out.println("ERROR busy");
+            return false;
+        }
+        if (point == null) {
+            isOver = true;
+            out.println("END DRAW");
+            return true;
+        }
+        chessArray[point.getX()][point.getY()] = AI;
+        stoneCount++;
+        metrics.record(System.nanoTime() - start);
+        out.println(point.getX() + "," + point.getY());
+        if (Board.isFive(chessArray, point.getX(), point.getY())) {
+            isOver = true;
+            out.println("END LOSE");
+        } else if (stoneCount == chessArray.length * chessArray.length) {
+            isOver = true;
+            out.println("END DRAW");
+        }
+        return true;
+    }
+}
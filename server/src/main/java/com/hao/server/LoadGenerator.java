@@ -0,0 +1,160 @@
+package com.hao.server;
+
+import com.hao.ai.Board;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 模拟负载
+ * 同时打开指定数量的会话，每个会话不停地下棋（玩家在AI上一步附近随机落子），
+ * 结束时输出客户端看到的每秒步数、p50/p99延迟以及被拒绝（ERROR busy）的次数
+ * 用法：LoadGenerator [主机] [端口] [会话数] [秒数]
+ */
+
+public class LoadGenerator {
+    //在AI上一步附近随机选点的次数，都不是空位时改为在整个棋盘上找空位
+    private static final int NEAR_TRIES = 20;
+
+    private final String host;
+    private final int port;
+    private final Metrics metrics = new Metrics();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+
+    public LoadGenerator(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * 运行负载
+     *
+     * @param sessionCount 会话数
+     * @param seconds      持续时间
+     */
+    public void run(int sessionCount, int seconds) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Threads.newPerTaskExecutor();
+        for (int i = 0; i < sessionCount; i++) {
+            final long seed = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        play(new Random(seed), deadline);
+                    } catch (IOException e) {
+                        System.err.println("session failed: " + e.getMessage());
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+    }
+
+    //一个会话：反复开始新的一局直到时间用完
+    private void play(Random random, long deadline) throws IOException {
+        Socket socket = new Socket(host, port);
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8), true);
+            int size = 15;
+            while (System.nanoTime() < deadline) {
+                out.println("START " + size);
+                in.readLine();
+                int[][] chessArray = new int[size][size];
+                int stoneCount = 0;
+                int lastX = size / 2;
+                int lastY = size / 2;
+                boolean isOver = false;
+                while (!isOver && System.nanoTime() < deadline) {
+                    int move = pickMove(random, chessArray, lastX, lastY);
+                    if (move < 0) {
+                        //棋盘已满（会话已经回复过END DRAW）
+                        break;
+                    }
+                    int x = move / size;
+                    int y = move % size;
+                    long start = System.nanoTime();
+                    out.println("TURN " + x + "," + y);
+                    String reply = in.readLine();
+                    if (reply == null) {
+                        return;
+                    }
+                    if (reply.startsWith("ERROR busy")) {
+                        rejected.incrementAndGet();
+                        continue;
+                    }
+                    chessArray[x][y] = 1;
+                    stoneCount++;
+                    if (reply.startsWith("END")) {
+                        isOver = true;
+                    } else {
+                        metrics.record(System.nanoTime() - start);
+                        String[] fields = reply.split(",");
+                        lastX = Integer.parseInt(fields[0]);
+                        lastY = Integer.parseInt(fields[1]);
+                        chessArray[lastX][lastY] = 2;
+                        stoneCount++;
+                        //AI这一步五连或者下满棋盘时还会再回复一行END
+                        if (Board.isFive(chessArray, lastX, lastY) || stoneCount == size * size) {
+                            in.readLine();
+                            isOver = true;
+                        }
+                    }
+                }
+                games.incrementAndGet();
+            }
+            out.println("END");
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * 玩家的落点：先在AI上一步的5x5范围内随机选，多次选不到空位时从随机位置开始找整个棋盘的空位
+     *
+     * @return 落点（x * size + y），棋盘已满时返回-1
+     */
+    private static int pickMove(Random random, int[][] chessArray, int lastX, int lastY) {
+        int size = chessArray.length;
+        for (int i = 0; i < NEAR_TRIES; i++) {
+            int x = Math.min(size - 1, Math.max(0, lastX + random.nextInt(5) - 2));
+            int y = Math.min(size - 1, Math.max(0, lastY + random.nextInt(5) - 2));
+            if (chessArray[x][y] == 0) {
+                return x * size + y;
+            }
+        }
+        int start = random.nextInt(size * size);
+        for (int i = 0; i < size * size; i++) {
+            int move = (start + i) % (size * size);
+            if (chessArray[move / size][move % size] == 0) {
+                return move;
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        LoadGenerator generator = new LoadGenerator(host, port);
+        generator.run(sessions, seconds);
+        System.out.println("sessions " + sessions + "  games " + generator.games.get() + "  rejected "
+                + generator.rejected.get() + "  " + generator.metrics.report());
+    }
+}
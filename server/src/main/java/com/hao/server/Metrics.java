@@ -0,0 +1,58 @@
+package com.hao.server;
+
+import java.util.Arrays;
+
+/**
+ * 落子统计
+ * 记录每一步的延迟，按统计周期输出每秒步数以及延迟的p50、p99和最大值
+ */
+
+public class Metrics {
+    //本周期内每一步的延迟（微秒）
+    private long[] latencies = new long[1024];
+    private int count;
+    //总步数
+    private long total;
+    //本周期开始的时间（纳秒）
+    private long periodStart = System.nanoTime();
+
+    /**
+     * 记录一步
+     *
+     * @param nanos 延迟（纳秒）
+     */
+    public synchronized void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos / 1000;
+        total++;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    //输出本周期的统计并开始新的周期
+    public synchronized String report() {
+        long now = System.nanoTime();
+        double seconds = (now - periodStart) / 1e9;
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        String report = String.format("moves %d  %.1f moves/s  p50 %.1f ms  p99 %.1f ms  max %.1f ms",
+                count, count / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1] / 1000.0);
+        count = 0;
+        periodStart = now;
+        return report;
+    }
+
+    //已排序延迟的百分位（毫秒）
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+}
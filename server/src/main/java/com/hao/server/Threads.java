@@ -0,0 +1,36 @@
+package com.hao.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 会话线程
+ * 在JDK 21及以上使用虚拟线程（每个会话一个，阻塞读写时不占用平台线程），
+ * 更早的JDK上退回到普通的线程池，模块本身仍按Java 8编译
+ */
+
+final class Threads {
+    private Threads() {
+    }
+
+    //每个任务一个线程的执行器
+    static ExecutorService newPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    //是否支持虚拟线程
+    static boolean isVirtualAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}